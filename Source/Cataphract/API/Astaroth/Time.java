@@ -36,14 +36,32 @@ package Cataphract.API.Astaroth;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import Cataphract.API.Config;
 
 /**
  * Provides utilities for handling date and time operations.
+ *
+ * Compiled formatters are kept in a bounded cache keyed by pattern, and each pattern remembers
+ * the last second it rendered. The many callers formatting the current time within the same
+ * second (log writes, prompt redraws, calendars) therefore share one rendered string instead
+ * of compiling the pattern and formatting the clock on every call.
  */
 public class Time {
+    private static final int FORMATTER_CACHE_CAPACITY = 64;
+    private static final Map<String, CachedFormat> FORMATTER_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedFormat>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedFormat> eldest) {
+                    return size() > FORMATTER_CACHE_CAPACITY;
+                }
+            });
+
     private final TimeProvider timeProvider;
 
     public Time() {
@@ -69,8 +87,7 @@ public class Time {
      */
     public String getDateTimeUsingSpecifiedFormat(String format) {
         try {
-            LocalDateTime dateTime = timeProvider.getCurrentDateTime();
-            return dateTime.format(DateTimeFormatter.ofPattern(format));
+            return formatEpochMillis(timeProvider.getCurrentEpochMillis(), format);
         } catch (Exception e) {
             Config.io.printError("Invalid Date/Time Format Detected! Please enter a valid Date/Time format.");
             Config.exceptionHandler.handleException(e);
@@ -78,12 +95,88 @@ public class Time {
         }
     }
 
+    /**
+     * Formats a point in time in the system time zone.
+     * @param epochMillis The point in time, in milliseconds since January 1, 1970.
+     * @param format The desired format (e.g., "yyyy-MM-dd HH:mm:ss").
+     * @return The formatted date/time string.
+     * @throws IllegalArgumentException If the format is not a valid pattern.
+     */
+    public String formatEpochMillis(long epochMillis, String format) {
+        return cachedFormat(format).format(epochMillis);
+    }
+
+    /**
+     * Gets the compiled formatter for a pattern from the shared cache.
+     * @param format The desired format (e.g., "yyyy-MM-dd HH:mm:ss").
+     * @return The compiled formatter.
+     * @throws IllegalArgumentException If the format is not a valid pattern.
+     */
+    public DateTimeFormatter getFormatter(String format) {
+        return cachedFormat(format).formatter;
+    }
+
     /**
      * Gets the current Unix epoch timestamp (seconds since January 1, 1970).
      * @return The epoch timestamp.
      */
     public long getUnixEpoch() {
-        return timeProvider.getCurrentInstant().getEpochSecond();
+        return Math.floorDiv(timeProvider.getCurrentEpochMillis(), 1000L);
+    }
+
+    private static CachedFormat cachedFormat(String format) {
+        CachedFormat cached = FORMATTER_CACHE.get(format);
+        if (cached == null) {
+            // Compiled outside the lock; an invalid pattern throws here and is never cached
+            cached = new CachedFormat(format);
+            FORMATTER_CACHE.put(format, cached);
+        }
+        return cached;
+    }
+}
+
+/**
+ * A compiled pattern together with the last second it rendered.
+ */
+final class CachedFormat {
+    final DateTimeFormatter formatter;
+    private final boolean renderedPerSecond;
+    private volatile RenderedSecond last;
+
+    CachedFormat(String format) {
+        this.formatter = DateTimeFormatter.ofPattern(format);
+        // Fraction-of-second and milli-of-day fields change within a second and cannot be reused
+        this.renderedPerSecond = format.chars().noneMatch(c -> c == 'S' || c == 'n' || c == 'N' || c == 'A');
+    }
+
+    String format(long epochMillis) {
+        ZoneId zone = ZoneId.systemDefault();
+        if (!renderedPerSecond) {
+            return formatter.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone));
+        }
+        long epochSecond = Math.floorDiv(epochMillis, 1000L);
+        RenderedSecond rendered = last;
+        if (rendered == null || rendered.epochSecond != epochSecond || !rendered.zone.equals(zone)) {
+            rendered = new RenderedSecond(epochSecond, zone,
+                    formatter.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone)));
+            last = rendered;
+        }
+        return rendered.text;
+    }
+}
+
+/**
+ * An immutable rendering of one second, so readers never see a half-updated cache entry.
+ */
+final class RenderedSecond {
+    final long epochSecond;
+    final ZoneId zone;
+    final String text;
+
+    RenderedSecond(long epochSecond, ZoneId zone, String text) {
+        this.epochSecond = epochSecond;
+        this.zone = zone;
+        this.text = text;
     }
 }
 
@@ -93,6 +186,14 @@ public class Time {
 interface TimeProvider {
     LocalDateTime getCurrentDateTime();
     Instant getCurrentInstant();
+
+    /**
+     * Gets the current time in milliseconds since January 1, 1970. Cheaper than building an
+     * {@link Instant} when only the epoch is needed.
+     */
+    default long getCurrentEpochMillis() {
+        return getCurrentInstant().toEpochMilli();
+    }
 }
 
 /**
@@ -108,4 +209,9 @@ class DefaultTimeProvider implements TimeProvider {
     public Instant getCurrentInstant() {
         return Instant.now();
     }
+
+    @Override
+    public long getCurrentEpochMillis() {
+        return System.currentTimeMillis();
+    }
 }
\ No newline at end of file
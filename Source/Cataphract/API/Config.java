@@ -39,6 +39,7 @@ import Cataphract.API.Astaroth.Time;
 import Cataphract.API.Dragon.AccountCreate;
 import Cataphract.API.Dragon.UserAccount;
 import Cataphract.API.Astaroth.Calendar;
+import Cataphract.API.Minotaur.Authorization;
 import Cataphract.API.Minotaur.Cryptography;
 import Cataphract.API.Minotaur.PolicyCheck;
 import Cataphract.API.Wraith.PathUtils;
@@ -66,6 +67,7 @@ public final class Config {
     // MINOTAUR CLASSES //
     public static final Cryptography cryptography = new Cryptography();
     public static final PolicyCheck policyCheck = new PolicyCheck();
+    public static final Authorization authorization = new Authorization(policyCheck);
 
     // WRAITH CLASSES //
     public static final PathUtils pathUtils = new PathUtils();
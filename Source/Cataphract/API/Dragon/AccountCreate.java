@@ -35,6 +35,7 @@
 package Cataphract.API.Dragon;
 
 import Cataphract.API.Config;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * A class to create new user accounts on the system. Can be restricted by policy "account_create".
@@ -67,13 +68,13 @@ public final class AccountCreate implements AccountManager
     public AccountCreate(String username) throws Exception 
     {
         this.currentUsername = username == null || username.isEmpty() ? "DEFAULT" : username;
-        this.isCurrentUserAdmin = new Login(username).checkPrivilegeLogic();
+        this.isCurrentUserAdmin = Config.authorization.isAdmin(this.currentUsername);
     }
 
     @Override
     public void execute() throws Exception 
     {
-        if (! Config.policyCheck.retrievePolicyValue("account_create").equals("on") && !isCurrentUserAdmin) {
+        if (!Config.authorization.hasPermission(currentUsername, Permission.ACCOUNT_CREATE)) {
             Config.io.printError("Policy Management System - Permission Denied.");
             return;
         }
@@ -183,10 +184,8 @@ public final class AccountCreate implements AccountManager
      */
     private void addAccountToDatabase() 
     {
-        boolean success = DatabaseManager.executeUpdate(
-            "INSERT INTO MUD(Username, Name, Password, SecurityKey, PIN, Privileges) VALUES(?,?,?,?,?,?)",
-            account.getUsername(), account.getName(), account.getPassword(), account.getSecurityKey(), account.getPin(), account.isAdmin() ? "Yes" : "No"
-        );
+        boolean success = UserTable.insert(account);
+        UserRecordCache.invalidate(account.getUsername());
         if (success) {
             FileManager.createUserDirectory(account.getUsername());
             Config.io.printInfo("Account Creation Successful!");
@@ -37,6 +37,7 @@ package Cataphract.API.Dragon;
 import java.io.File;
 
 import Cataphract.API.Config;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * A class to delete user accounts on the system. Can be restricted by policy "account_delete".
@@ -57,13 +58,13 @@ public final class AccountDelete implements AccountManager {
      */
     public AccountDelete(String currentUsername) throws Exception {
         this.currentUsername = currentUsername == null || currentUsername.isEmpty() ? "DEFAULT" : currentUsername;
-        this.isCurrentUserAdmin = new Login(currentUsername).checkPrivilegeLogic();
+        this.isCurrentUserAdmin = Config.authorization.isAdmin(this.currentUsername);
     }
 
     @Override
     public void execute() throws Exception {
         Config.build.viewBuildInfo(false);
-        if (!new Cataphract.API.Minotaur.PolicyCheck().retrievePolicyValue("account_delete").equals("on") && !isCurrentUserAdmin) {
+        if (!Config.authorization.hasPermission(currentUsername, Permission.ACCOUNT_DELETE)) {
             Config.io.printError("Policy Management System - Permission Denied.");
             return;
         }
@@ -148,7 +149,9 @@ public final class AccountDelete implements AccountManager {
         }
 
         if (Config.console.readLine("Are you sure you wish to delete user account \"" + new Login(username).getNameLogic() + "\"? [ YES | NO ]\n> ").equalsIgnoreCase("yes")) {
-            boolean dbSuccess = DatabaseManager.executeUpdate("DELETE FROM MUD WHERE Username = ?", username);
+            boolean dbSuccess = UserTable.delete(username);
+            UserRecordCache.invalidate(username);
+            Config.authorization.invalidate(username);
             boolean dirSuccess = FileManager.deleteDirectory(new File(Config.USER_HOME + username));
             boolean success = dbSuccess && dirSuccess;
             if (success) {
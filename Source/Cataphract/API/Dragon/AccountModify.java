@@ -37,7 +37,7 @@ package Cataphract.API.Dragon;
 import java.io.File;
 
 import Cataphract.API.Config;
-import Cataphract.API.Minotaur.PolicyCheck;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * A class to modify user accounts on the system. Can be restricted by policy "account_modify".
@@ -61,13 +61,13 @@ public final class AccountModify implements AccountManager {
     public AccountModify(String user) throws Exception {
         this.currentUsername = user == null || user.isEmpty() ? "DEFAULT" : user;
         this.currentAccountName = new Login(user).getNameLogic();
-        this.isCurrentUserAdmin = new Login(user).checkPrivilegeLogic();
+        this.isCurrentUserAdmin = Config.authorization.isAdmin(this.currentUsername);
         this.targetUser = currentUsername;
     }
 
     @Override
     public void execute() throws Exception {
-        if (!new PolicyCheck().retrievePolicyValue("account_modify").equals("on") && !isCurrentUserAdmin) {
+        if (!Config.authorization.hasPermission(currentUsername, Permission.ACCOUNT_MODIFY)) {
             Config.io.printError("Policy Management System - Permission Denied.");
             return;
         }
@@ -189,10 +189,9 @@ public final class AccountModify implements AccountManager {
         String value = CredentialValidator.validateCredential(field, policy, validator, Config.console, isPassword);
         if (value != null) {
             String hashedValue = isPassword && !value.isEmpty() ? Config.cryptography.stringToSHA3_256(value) : value;
-            boolean success = DatabaseManager.executeUpdate(
-                "UPDATE MUD SET " + field + " = ? WHERE Username = ?",
-                hashedValue, targetUser
-            );
+            // The column names have no spaces: "Security Key" is stored in SecurityKey
+            boolean success = UserTable.updateCredential(targetUser, field.replace(" ", ""), hashedValue);
+            UserRecordCache.invalidate(targetUser);
             Config.io.printInfo(success ? "Account Modification Successful!" : "Account Modification Failed.");
         }
     }
@@ -222,10 +221,9 @@ public final class AccountModify implements AccountManager {
 
         Config.io.printAttention("YOU ARE ABOUT TO " + action.toUpperCase() + " \"" + new Login(targetUser).getNameLogic() + "\". ARE YOU SURE? [ Y | N ]");
         if (Config.console.readLine("Change Privileges?> ").equalsIgnoreCase("y")) {
-            boolean success = DatabaseManager.executeUpdate(
-                "UPDATE MUD SET Privileges = ? WHERE Username = ?",
-                action.equalsIgnoreCase("promote") ? "Yes" : "No", targetUser
-            );
+            boolean success = UserTable.setAdmin(targetUser, action.equalsIgnoreCase("promote"));
+            UserRecordCache.invalidate(targetUser);
+            Config.authorization.invalidate(targetUser);
             Config.io.printInfo(success ? action.toUpperCase() + "D " + new Login(targetUser).getNameLogic() + " successfully!" : "Account Modification Failed.");
         }
     }
@@ -0,0 +1,340 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Dragon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import Cataphract.API.Config;
+
+/**
+ * A class to import and export user accounts in bulk, as CSV files. Administrators only.
+ *
+ * The file starts with the header {@code Username,Name,Password,SecurityKey,PIN,Privileges}
+ * and holds one account per line, with the username and credentials as hexadecimal SHA3-256
+ * hashes, so an export can be imported as is on another installation. Files are read from and
+ * written to the home directory of the current user.
+ *
+ * An import is all or nothing: every record is checked first, including whether its account
+ * already exists, and the accounts are then inserted in batches within one transaction, so an
+ * invalid or duplicate account leaves the database unchanged. The home directories of the
+ * new accounts are then created in parallel. An export writes the accounts as they are read
+ * from the database, without holding them in memory.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public final class AccountTransfer implements AccountManager {
+    private static final String HEADER = "Username,Name,Password,SecurityKey,PIN,Privileges";
+    private static final int BATCH_SIZE = 500;
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final String currentUsername;
+    private final boolean importing;
+    private final String fileName;
+
+    /**
+     * Constructor for an import or an export.
+     *
+     * @param username The currently logged-in username.
+     * @param importing true to import the accounts from the file, false to export them to it.
+     * @param fileName The name of the file, in the home directory of the current user.
+     */
+    public AccountTransfer(String username, boolean importing, String fileName) {
+        this.currentUsername = username == null || username.isEmpty() ? "DEFAULT" : username;
+        this.importing = importing;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        if (!Config.authorization.isAdmin(currentUsername)) {
+            Config.io.printError("Invalid Privileges! Only administrators can import or export accounts.");
+            return;
+        }
+
+        Config.build.viewBuildInfo(false);
+        if (!authenticate(String.valueOf(Config.console.readPassword("Password: ")), String.valueOf(Config.console.readPassword("Security Key: ")))) {
+            Config.io.printError("Incorrect Credentials! Aborting...");
+            return;
+        }
+
+        Path file = Paths.get(Config.io.convertFileSeparator(Config.USER_HOME + currentUsername + "|" + fileName));
+        if (importing) {
+            importAccounts(file);
+        } else {
+            exportAccounts(file);
+        }
+    }
+
+    @Override
+    public boolean authenticate(String password, String securityKey) throws Exception {
+        Config.io.printAttention("Please authenticate to continue.");
+        Config.io.println("Username: " + new Login(currentUsername).getNameLogic());
+        String hashedPassword = Config.cryptography.stringToSHA3_256(password);
+        String hashedSecurityKey = securityKey.isEmpty() ? "" : Config.cryptography.stringToSHA3_256(securityKey);
+        return new Login(currentUsername).authenticationLogic(hashedPassword, hashedSecurityKey);
+    }
+
+    /**
+     * Imports the accounts of a file.
+     *
+     * @param file The CSV file.
+     * @return The number of accounts imported, or -1 if the import failed.
+     */
+    int importAccounts(Path file) {
+        if (!Files.isRegularFile(file)) {
+            Config.io.printError("File not found: " + fileName);
+            return -1;
+        }
+
+        List<String[]> records = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             Connection connection = DatabaseManager.getConnection()) {
+            String header = reader.readLine();
+            if (header == null || !header.trim().equals(HEADER)) {
+                Config.io.printError("Invalid file. The first line must be: " + HEADER);
+                return -1;
+            }
+
+            // Every record is checked before the write transaction starts, so the other
+            // connections, which wait on it, are held up only while the accounts are inserted
+            try (PreparedStatement exists = connection.prepareStatement(UserTable.EXISTS_SQL);
+                 PreparedStatement insert = connection.prepareStatement(UserTable.INSERT_SQL)) {
+                String line;
+                int lineNumber = 1;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    String[] fields = parseRecord(line);
+                    String error = validateRecord(fields, seen);
+                    if (error == null && UserTable.exists(exists, fields[0])) {
+                        error = "Account already exists";
+                    }
+                    if (error != null) {
+                        Config.io.printError("Line " + lineNumber + ": " + error + ". No accounts were imported.");
+                        return -1;
+                    }
+                    records.add(fields);
+                    lineNumbers.add(lineNumber);
+                }
+
+                connection.setAutoCommit(false);
+                for (int start = 0; start < records.size(); start += BATCH_SIZE) {
+                    int end = Math.min(start + BATCH_SIZE, records.size());
+                    for (String[] fields : records.subList(start, end)) {
+                        UserTable.bind(insert, UserTable.insertParameters(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5].equals("Yes")));
+                        insert.addBatch();
+                    }
+                    try {
+                        insert.executeBatch();
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        // An account may have been created since the records were checked
+                        for (int i = start; i < end; i++) {
+                            if (UserTable.exists(exists, records.get(i)[0])) {
+                                Config.io.printError("Line " + lineNumbers.get(i) + ": Account already exists. No accounts were imported.");
+                                return -1;
+                            }
+                        }
+                        throw e;
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            Config.io.printError("Account Import Failed: " + e.getMessage() + ". No accounts were imported.");
+            return -1;
+        }
+
+        // An earlier lookup of an imported user may have been answered before the import
+        UserRecordCache.clear();
+        long missingHomes = records.parallelStream()
+            .map(fields -> fields[0])
+            .filter(username -> !FileManager.createUserDirectory(username) && !Files.isDirectory(Paths.get(Config.USER_HOME + username)))
+            .count();
+        Config.io.printInfo("Imported " + records.size() + " accounts.");
+        if (missingHomes > 0) {
+            Config.io.printWarning("Unable to create the home directory of " + missingHomes + " accounts.");
+        }
+        return records.size();
+    }
+
+    /**
+     * Exports every account to a file, which must not exist yet.
+     *
+     * @param file The CSV file.
+     * @return The number of accounts exported, or -1 if the export failed.
+     */
+    int exportAccounts(Path file) {
+        int count;
+        boolean writeFailed;
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW))) {
+            writer.print(HEADER + "\n");
+            count = UserTable.forEach("", 0, account -> writer.print(formatRecord(new String[] {
+                account.getUsername(), account.getName(), account.getPassword(), account.getSecurityKey(), account.getPin(), account.isAdmin() ? "Yes" : "No"
+            }) + "\n"));
+            writeFailed = writer.checkError();
+        } catch (FileAlreadyExistsException e) {
+            Config.io.printError("Account Export Failed: " + fileName + " already exists.");
+            return -1;
+        } catch (IOException e) {
+            Config.io.printError("Account Export Failed: " + e.getMessage());
+            return -1;
+        }
+
+        if (count < 0 || writeFailed) {
+            // Do not leave a partial export behind
+            file.toFile().delete();
+            Config.io.printError("Account Export Failed" + (writeFailed ? ": Unable to write to " + fileName : "."));
+            return -1;
+        }
+        Config.io.printInfo("Exported " + count + " accounts to " + fileName);
+        return count;
+    }
+
+    /**
+     * Checks a record before it is imported.
+     *
+     * @return The reason the record is invalid, or null if it is valid.
+     */
+    private static String validateRecord(String[] fields, Set<String> seen) {
+        if (fields == null) {
+            return "Unclosed quote";
+        }
+        if (fields.length != 6) {
+            return "Expected 6 fields";
+        }
+        if (!HASH.matcher(fields[0]).matches()) {
+            return "Username must be a SHA3-256 hash";
+        }
+        if (!seen.add(fields[0])) {
+            return "Duplicate username";
+        }
+        if (fields[1].isEmpty()) {
+            return "Name is empty";
+        }
+        if (!HASH.matcher(fields[2]).matches() || !HASH.matcher(fields[4]).matches()) {
+            return "Password and PIN must be SHA3-256 hashes";
+        }
+        if (!fields[3].isEmpty() && !HASH.matcher(fields[3]).matches()) {
+            return "Security Key must be empty or a SHA3-256 hash";
+        }
+        if (!fields[5].equals("Yes") && !fields[5].equals("No")) {
+            return "Privileges must be Yes or No";
+        }
+        return null;
+    }
+
+    /**
+     * Splits a CSV line into its fields. Fields may be quoted, with "" standing for a quote.
+     *
+     * @return The fields, or null if a quoted field is not closed.
+     */
+    static String[] parseRecord(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Joins fields into a CSV line, quoting the fields that hold a separator or a quote.
+     */
+    static String formatRecord(String[] fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = fields[i].replace("\r", " ").replace("\n", " ");
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -37,21 +37,11 @@ package Cataphract.API.Dragon;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.Statement;
 
 import Cataphract.API.Config;
 
 public final class DatabaseInitializer {
     private static final String DATABASE_PATH = DatabaseInitializer.getDatabasePath();
-    private static final String CREATE_MUD_TABLE = 
-        "CREATE TABLE IF NOT EXISTS MUD (" +
-        "Username TEXT," +
-        "Name TEXT NOT NULL," +
-        "Password TEXT NOT NULL," +
-        "SecurityKey TEXT NOT NULL," +
-        "PIN TEXT NOT NULL," +
-        "Privileges TEXT NOT NULL," +
-        "PRIMARY KEY(Username));";
 
     private DatabaseInitializer() {} // Prevent instantiation
 
@@ -74,10 +64,9 @@ public final class DatabaseInitializer {
             // Load SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
 
-            // Establish connection and create table
-            try (Connection dbConnection = DriverManager.getConnection(DATABASE_PATH);
-                 Statement statement = dbConnection.createStatement()) {
-                statement.execute(CREATE_MUD_TABLE);
+            // Establish connection and create the schema
+            try (Connection dbConnection = DriverManager.getConnection(DATABASE_PATH)) {
+                SchemaMigrator.migrate(dbConnection);
                 Config.io.printInfo("Master User Database initialized successfully.");
                 return true;
             }
@@ -39,49 +39,48 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import Cataphract.API.Config;
 
 /**
  * Utility class to manage database operations for the Cataphract shell.
  *
+ * Queries run on a small pool of connections that stay open for the life of the program, each
+ * with a cache of prepared statements. The pool is closed by {@link #shutdown()}, which also
+ * runs when the program exits.
+ *
  * @author DAK404 (https://github.com/DAK404)
  * @version 4.0.0 (12-July-2025, Cataphract)
  */
 public final class DatabaseManager {
-    private static Connection connection;
+    private static final ConnectionPool POOL = new ConnectionPool();
 
     private DatabaseManager() {
         // Private constructor to prevent instantiation
     }
 
     /**
-     * Gets a database connection, reusing an existing one if available.
+     * Opens a dedicated database connection, outside the pool. The caller must close it.
      *
      * @return The database connection.
      * @throws SQLException If a database error occurs.
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName("org.sqlite.JDBC");
-                connection = DriverManager.getConnection("jdbc:sqlite:" + Config.DB_PATH);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("JDBC driver not found: " + e.getMessage());
-            }
-        }
-        return connection;
+        return ConnectionPool.openConnection();
     }
 
     /**
-     * Closes the database connection.
-     *
-     * @throws SQLException If an error occurs while closing.
+     * Closes the pooled connections. Connections in use are closed when their query completes;
+     * later queries fail.
      */
-    public static void closeConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
-        }
+    public static void shutdown() {
+        POOL.shutdown();
     }
 
     /**
@@ -92,16 +91,95 @@ public final class DatabaseManager {
      * @return true if the update succeeds, false otherwise.
      */
     public static boolean executeUpdate(String sql, Object... params) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
-            }
+        PooledConnection connection = null;
+        SQLException failure = null;
+        try {
+            connection = POOL.acquire();
+            PreparedStatement stmt = connection.prepare(sql, params);
             stmt.executeUpdate();
             return true;
         } catch (SQLException e) {
+            failure = e;
             Config.io.printError("Database Update Failed: " + e.getMessage());
             return false;
+        } finally {
+            POOL.release(connection, failure);
+        }
+    }
+
+    /**
+     * Maps the current row of a result set to an object.
+     *
+     * @param <T> The type of the mapped object.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Retrieves the first row of a query, mapped to an object.
+     *
+     * @param sql The SQL query.
+     * @param mapper Maps the row.
+     * @param params The parameters to set in the prepared statement.
+     * @return The mapped row, or null if there is no row or the query fails.
+     */
+    public static <T> T retrieveRow(String sql, RowMapper<T> mapper, Object... params) {
+        PooledConnection connection = null;
+        SQLException failure = null;
+        try {
+            connection = POOL.acquire();
+            PreparedStatement stmt = connection.prepare(sql, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapper.map(rs) : null;
+            }
+        } catch (SQLException e) {
+            failure = e;
+            Config.io.printError("Database Query Failed: " + e.getMessage());
+            return null;
+        } finally {
+            POOL.release(connection, failure);
+        }
+    }
+
+    /**
+     * Handles the rows of a query as they are read.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Runs a query and passes each row to the handler as it is read, so the rows are never
+     * held in memory together.
+     *
+     * @param sql The SQL query.
+     * @param handler Handles each row.
+     * @param params The parameters to set in the prepared statement.
+     * @return The number of rows handled, or -1 if the query fails.
+     */
+    public static int forEachRow(String sql, RowHandler handler, Object... params) {
+        PooledConnection connection = null;
+        SQLException failure = null;
+        try {
+            connection = POOL.acquire();
+            PreparedStatement stmt = connection.prepare(sql, params);
+            int count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            failure = e;
+            Config.io.printError("Database Query Failed: " + e.getMessage());
+            return -1;
+        } finally {
+            POOL.release(connection, failure);
         }
     }
 
@@ -114,11 +192,11 @@ public final class DatabaseManager {
      * @return The retrieved value, or "Error" if not found.
      */
     public static String retrieveSingleValue(String sql, String column, Object... params) {
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
-            }
+        PooledConnection connection = null;
+        SQLException failure = null;
+        try {
+            connection = POOL.acquire();
+            PreparedStatement stmt = connection.prepare(sql, params);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     String result = rs.getString(column);
@@ -126,8 +204,221 @@ public final class DatabaseManager {
                 }
             }
         } catch (SQLException e) {
+            failure = e;
             Config.io.printError("Database Query Failed: " + e.getMessage());
+        } finally {
+            POOL.release(connection, failure);
         }
         return "Error";
     }
-}
\ No newline at end of file
+}
+
+/**
+ * A fixed-size pool of database connections shared by all sessions.
+ *
+ * Connections are opened on demand up to the pool size and then reused. A connection broken by
+ * a failure is closed instead of being returned, so it is not handed out again; a connection
+ * that only saw a statement fail, e.g. on a constraint violation, goes back to the pool. SQLite serialises writers; the busy timeout makes a writer wait for the lock instead
+ * of failing at once.
+ */
+final class ConnectionPool {
+    private static final int POOL_SIZE = 4;
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 10;
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private final BlockingQueue<PooledConnection> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+    private int openCount;
+    private boolean closed;
+    private boolean shutdownHookRegistered;
+
+    static Connection openConnection() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver not found: " + e.getMessage());
+        }
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + Config.DB_PATH);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+            }
+            // Run with no other statement open, as the upgrade ends with a VACUUM
+            SchemaMigrator.migrate(connection);
+            try (Statement statement = connection.createStatement()) {
+                // Write-ahead logging, in which readers do not block the writer. The mode is kept
+                // in the database file, so this is a no-op once set; if the switch fails because
+                // another connection is reading, the next connection opened retries it
+                try {
+                    statement.execute("PRAGMA journal_mode = WAL");
+                } catch (SQLException e) {
+                    // Stays in the rollback journal mode for now
+                }
+                // Durable at each checkpoint rather than each commit; safe with write-ahead logging
+                statement.execute("PRAGMA synchronous = NORMAL");
+                statement.execute("PRAGMA temp_store = MEMORY");
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    PooledConnection acquire() throws SQLException {
+        PooledConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        if (reserve()) {
+            try {
+                return new PooledConnection(openConnection());
+            } catch (SQLException e) {
+                unreserve();
+                throw e;
+            }
+        }
+        try {
+            connection = idle.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection");
+        }
+        if (connection == null) {
+            throw new SQLException("No database connection available");
+        }
+        return connection;
+    }
+
+    /**
+     * Returns a connection to the pool.
+     *
+     * @param connection The connection, or null if none was acquired.
+     * @param failure    The failure of the query run on the connection, or null if it succeeded.
+     */
+    void release(PooledConnection connection, SQLException failure) {
+        if (connection == null) {
+            return;
+        }
+        boolean healthy = failure == null || !connection.isBrokenBy(failure);
+        synchronized (this) {
+            if (healthy && !closed && idle.offer(connection)) {
+                return;
+            }
+            openCount--;
+        }
+        connection.close();
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            closed = true;
+        }
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            synchronized (this) {
+                openCount--;
+            }
+            connection.close();
+        }
+    }
+
+    private synchronized boolean reserve() throws SQLException {
+        if (closed) {
+            throw new SQLException("Database connections are shut down");
+        }
+        if (openCount >= POOL_SIZE) {
+            return false;
+        }
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Dragon-DatabaseShutdown"));
+            shutdownHookRegistered = true;
+        }
+        openCount++;
+        return true;
+    }
+
+    private synchronized void unreserve() {
+        openCount--;
+    }
+}
+
+/**
+ * A pooled connection with a cache of its most recently used prepared statements. Only the
+ * thread that acquired the connection uses it.
+ */
+final class PooledConnection {
+    private static final int STATEMENT_CACHE_SIZE = 32;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    // SQLState class of connection exceptions
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > STATEMENT_CACHE_SIZE) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Retrieves the prepared statement for the SQL, preparing it on first use, and binds the
+     * parameters.
+     */
+    PreparedStatement prepare(String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt == null) {
+            stmt = connection.prepareStatement(sql);
+            statements.put(sql, stmt);
+        } else {
+            stmt.clearParameters();
+        }
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+        return stmt;
+    }
+
+    /**
+     * Checks whether a failure left the connection unusable: a connection exception, or a
+     * connection that no longer answers. Statement errors leave the connection usable.
+     */
+    boolean isBrokenBy(SQLException failure) {
+        String sqlState = failure.getSQLState();
+        if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+            return true;
+        }
+        try {
+            return !connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    void close() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // The connection is discarded either way
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // The statement is discarded either way
+        }
+    }
+}
@@ -41,12 +41,20 @@ import Cataphract.API.Config;
 /**
  * A class to handle user login and authentication.
  *
+ * The account record of the user is read once, in a single query, and reused by every check
+ * made through the same Login. Records are shared through the {@link UserRecordCache}, so
+ * repeated checks of the same user do not read the database.
+ *
  * @author DAK404 (https://github.com/DAK404)
  * @version 4.0.0 (12-July-2025, Cataphract)
  * @since 0.0.1 (Zen Quantum 0.0.1)
  */
 public final class Login {
+    private static final String LIST_FORMAT = "%1$-64s| %2$-32s| %3$-10s| %4$-7s\n";
+
     private final String username;
+    private UserAccount account;
+    private boolean accountLoaded;
 
     /**
      * Constructor for Login class.
@@ -58,6 +66,40 @@ public final class Login {
         this.username = username == null || username.isEmpty() ? "DEFAULT USER" : username;
     }
 
+    /**
+     * Constructor for a user whose account record is already loaded.
+     *
+     * @param account The account record.
+     */
+    public Login(UserAccount account) {
+        this.username = account.getUsername();
+        this.account = account;
+        this.accountLoaded = true;
+    }
+
+    /**
+     * Retrieves the (hashed) username this login handles.
+     *
+     * @return The username.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Loads the account record of the user, from the cache or the database, on first use.
+     *
+     * @return The account record, or null if the user does not exist or the database cannot be read.
+     * @throws Exception If an error occurs.
+     */
+    public UserAccount loadUserAccount() throws Exception {
+        if (!accountLoaded) {
+            account = UserRecordCache.get(username, UserTable::find);
+            accountLoaded = true;
+        }
+        return account;
+    }
+
     /**
      * Authenticates user login.
      *
@@ -67,9 +109,8 @@ public final class Login {
      * @throws Exception If an error occurs.
      */
     public boolean authenticationLogic(String psw, String key) throws Exception {
-        String storedPassword = DatabaseManager.retrieveSingleValue("SELECT Password FROM MUD WHERE Username = ?", "Password", username);
-        String storedSecurityKey = DatabaseManager.retrieveSingleValue("SELECT SecurityKey FROM MUD WHERE Username = ?", "SecurityKey", username);
-        return storedPassword.equals(psw) && (key.isEmpty() ? storedSecurityKey.isEmpty() : storedSecurityKey.equals(key));
+        UserAccount user = loadUserAccount();
+        return user != null && user.getPassword().equals(psw) && (key.isEmpty() ? user.getSecurityKey().isEmpty() : user.getSecurityKey().equals(key));
     }
 
     /**
@@ -79,27 +120,30 @@ public final class Login {
      * @throws Exception If an error occurs.
      */
     public boolean checkPrivilegeLogic() throws Exception {
-        return DatabaseManager.retrieveSingleValue("SELECT Privileges FROM MUD WHERE Username = ?", "Privileges", username).equals("Yes");
+        UserAccount user = loadUserAccount();
+        return user != null && user.isAdmin();
     }
 
     /**
      * Retrieves the user's name.
      *
-     * @return The user's name.
+     * @return The user's name, or "Error" if the user does not exist.
      * @throws Exception If an error occurs.
      */
     public String getNameLogic() throws Exception {
-        return DatabaseManager.retrieveSingleValue("SELECT Name FROM MUD WHERE Username = ?", "Name", username);
+        UserAccount user = loadUserAccount();
+        return user != null ? user.getName() : "Error";
     }
 
     /**
      * Retrieves the user's PIN (hashed).
      *
-     * @return The user's PIN.
+     * @return The user's PIN, or "Error" if the user does not exist.
      * @throws Exception If an error occurs.
      */
     public String getPINLogic() throws Exception {
-        return DatabaseManager.retrieveSingleValue("SELECT PIN FROM MUD WHERE Username = ?", "PIN", username);
+        UserAccount user = loadUserAccount();
+        return user != null ? user.getPin() : "Error";
     }
 
     /**
@@ -109,8 +153,7 @@ public final class Login {
      * @throws Exception If an error occurs.
      */
     public boolean checkUserExistence() throws Exception {
-        String result = DatabaseManager.retrieveSingleValue("SELECT count(*) > 0 FROM MUD WHERE Username = ?", "1", username);
-        return Boolean.parseBoolean(result);
+        return loadUserAccount() != null;
     }
 
     /**
@@ -119,24 +162,49 @@ public final class Login {
      * @throws Exception If an error occurs.
      */
     public void listAllUserAccounts() throws Exception {
+        listUserAccounts(0);
+    }
+
+    /**
+     * Lists the user accounts in username order, a page at a time (admin-only).
+     *
+     * Each page is read with a single query that continues after the last username of the
+     * previous page, so every page costs the same however many accounts there are, and only
+     * the current row is held in memory.
+     *
+     * @param pageSize The number of accounts per page, or 0 to list all accounts at once.
+     * @throws Exception If an error occurs.
+     */
+    public void listUserAccounts(int pageSize) throws Exception {
         if (!checkPrivilegeLogic()) {
             Config.io.printError("Insufficient Privileges.");
             return;
         }
 
-        String format = "%1$-64s| %2$-32s| %3$-5s\n";
-        String c = "-";
         Config.io.println("");
-        String header = String.format(format, "Username", "Account Name", "Privileges");
-        Config.io.println(header + c.repeat(header.length()) + "\n");
-
-        File[] fileList = new File(Config.USER_HOME).listFiles();
-        if (fileList != null) {
-            for (File userDir : fileList) {
-                String user = userDir.getName();
-                Config.io.println(String.format(format, user, new Login(user).getNameLogic(), new Login(user).checkPrivilegeLogic() ? "Yes" : "No"));
-            }
+        String header = String.format(LIST_FORMAT, "Username", "Account Name", "Privileges", "Home");
+        Config.io.println(header + "-".repeat(header.length()) + "\n");
+
+        if (pageSize <= 0) {
+            UserTable.forEach("", 0, Login::printUserAccount);
+        } else {
+            String[] cursor = {""};
+            int count;
+            do {
+                count = UserTable.forEach(cursor[0], pageSize, user -> cursor[0] = printUserAccount(user));
+            } while (count == pageSize && !Config.console.readLine("\n-- More -- [ ENTER: Next Page | EXIT ] ").equalsIgnoreCase("exit"));
         }
         Config.io.println("");
     }
+
+    /**
+     * Prints one account of the listing.
+     *
+     * @return The username of the account.
+     */
+    private static String printUserAccount(UserAccount user) {
+        boolean hasHome = new File(Config.USER_HOME + user.getUsername()).isDirectory();
+        Config.io.println(String.format(LIST_FORMAT, user.getUsername(), user.getName(), user.isAdmin() ? "Yes" : "No", hasHome ? "Yes" : "Missing"));
+        return user.getUsername();
+    }
 }
\ No newline at end of file
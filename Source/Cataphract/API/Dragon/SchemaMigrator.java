@@ -0,0 +1,212 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Dragon;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import Cataphract.API.Config;
+
+/**
+ * Creates the Master User Database schema and upgrades older databases in place.
+ *
+ * The schema version is kept in SQLite's {@code PRAGMA user_version}. Each migration upgrades
+ * the schema by one version and runs in its own transaction, so an interrupted upgrade leaves
+ * the database at the previous version, to be upgraded again on the next start. Every
+ * connection is migrated when it is opened; once the database is current, this costs a single
+ * pragma read.
+ *
+ * Versions:
+ *  0 - Empty database, or the original MUD table created without a version.
+ *  1 - The original MUD table: hexadecimal TEXT hashes and "Yes"/"No" privileges.
+ *  2 - Hashes stored as 32-byte BLOBs and privileges as an integer flag, in a WITHOUT ROWID
+ *      table clustered on the username.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class SchemaMigrator {
+    private static final Migration[] MIGRATIONS = {
+        SchemaMigrator::createOriginalSchema,
+        SchemaMigrator::compactAccounts,
+    };
+    static final int CURRENT_VERSION = MIGRATIONS.length;
+    private static final int BATCH_SIZE = 500;
+
+    private SchemaMigrator() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Upgrades the database to the current schema version.
+     *
+     * @param connection A connection in auto-commit mode.
+     * @throws SQLException If a migration fails, or the database was created by a newer version.
+     */
+    static synchronized void migrate(Connection connection) throws SQLException {
+        int version = userVersion(connection);
+        if (version > CURRENT_VERSION) {
+            throw new SQLException("The Master User Database has schema version " + version + ", newer than this program supports (" + CURRENT_VERSION + ")");
+        }
+        if (version == CURRENT_VERSION) {
+            return;
+        }
+
+        boolean upgraded = false;
+        try (Statement statement = connection.createStatement()) {
+            while (true) {
+                // Another program may be upgrading the same database; the write lock is taken
+                // before the version is read again
+                statement.execute("BEGIN IMMEDIATE");
+                try {
+                    version = userVersion(connection);
+                    if (version >= CURRENT_VERSION) {
+                        statement.execute("COMMIT");
+                        break;
+                    }
+                    MIGRATIONS[version].apply(connection);
+                    statement.execute("PRAGMA user_version = " + (version + 1));
+                    statement.execute("COMMIT");
+                    upgraded = true;
+                } catch (SQLException e) {
+                    statement.execute("ROLLBACK");
+                    throw e;
+                }
+            }
+            if (upgraded) {
+                finishUpgrade(statement);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the schema version of the database.
+     */
+    static int userVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("PRAGMA user_version")) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Version 1: the original schema. Databases created before versioning already have it.
+     */
+    private static void createOriginalSchema(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS MUD (" +
+                "Username TEXT," +
+                "Name TEXT NOT NULL," +
+                "Password TEXT NOT NULL," +
+                "SecurityKey TEXT NOT NULL," +
+                "PIN TEXT NOT NULL," +
+                "Privileges TEXT NOT NULL," +
+                "PRIMARY KEY(Username));");
+        }
+    }
+
+    /**
+     * Version 2: rebuilds MUD with binary hashes and an integer privilege flag.
+     *
+     * A 64-character hexadecimal hash takes 32 bytes as a BLOB, which halves the size of the
+     * primary key index and of every row. Without a rowid, the rows are stored in the primary
+     * key B-tree itself, so a lookup by username reads one tree instead of two.
+     */
+    private static void compactAccounts(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE MUD_COMPACT (" +
+                "Username BLOB NOT NULL PRIMARY KEY," +
+                "Name TEXT NOT NULL," +
+                "Password BLOB NOT NULL," +
+                "SecurityKey BLOB NOT NULL," +
+                "PIN BLOB NOT NULL," +
+                "Privileges INTEGER NOT NULL) WITHOUT ROWID");
+
+            int converted = 0;
+            int skipped = 0;
+            try (ResultSet rows = statement.executeQuery("SELECT Username, Name, Password, SecurityKey, PIN, Privileges FROM MUD");
+                 PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO MUD_COMPACT(Username, Name, Password, SecurityKey, PIN, Privileges) VALUES(?,?,?,?,?,?)")) {
+                while (rows.next()) {
+                    String username = rows.getString("Username");
+                    if (username == null) {
+                        // Unreachable by any login; the new key does not allow it
+                        skipped++;
+                        continue;
+                    }
+                    UserTable.bind(insert, UserTable.insertParameters(username, rows.getString("Name"), rows.getString("Password"),
+                        rows.getString("SecurityKey"), rows.getString("PIN"), "Yes".equals(rows.getString("Privileges"))));
+                    insert.addBatch();
+                    if (++converted % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+
+            statement.execute("DROP TABLE MUD");
+            statement.execute("ALTER TABLE MUD_COMPACT RENAME TO MUD");
+            if (converted > 0) {
+                Config.io.printInfo("Master User Database upgraded: " + converted + " accounts converted.");
+            }
+            if (skipped > 0) {
+                Config.io.printWarning("Master User Database upgrade: " + skipped + " accounts without a username were dropped.");
+            }
+        }
+    }
+
+    /**
+     * Reclaims the space freed by the upgrade. Must run outside a transaction.
+     */
+    private static void finishUpgrade(Statement statement) {
+        try {
+            statement.execute("VACUUM");
+        } catch (SQLException e) {
+            // Only reclaims space; fails if another connection is reading
+        }
+    }
+
+    /**
+     * Upgrades the schema from one version to the next, within the caller's transaction.
+     */
+    @FunctionalInterface
+    private interface Migration {
+        void apply(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Dragon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the account records read from the database.
+ *
+ * Holds up to {@value #CAPACITY} records, dropping the least recently used one when full. A
+ * record is read again once it is older than five minutes, so changes made outside this program
+ * are picked up. Every change made through the account management classes invalidates the
+ * record of the affected user at once.
+ *
+ * Only existing accounts are cached; looking up a user who does not exist always reads the
+ * database.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public final class UserRecordCache {
+    private static final int CAPACITY = 64;
+    private static final long TIME_TO_LIVE = TimeUnit.MINUTES.toNanos(5);
+
+    private static final Map<String, Entry> RECORDS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    // Incremented on every invalidation; a record read before it is not cached
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private UserRecordCache() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Retrieves the account record of a user, reading it from the database if it is not cached.
+     *
+     * @param username The (hashed) username.
+     * @param loader Reads the record from the database.
+     * @return A copy of the record, or null if the user does not exist.
+     * @throws Exception If the record cannot be read.
+     */
+    static UserAccount get(String username, RecordLoader loader) throws Exception {
+        long now = System.nanoTime();
+        synchronized (RECORDS) {
+            Entry entry = RECORDS.get(username);
+            if (entry != null && now - entry.loadedAt < TIME_TO_LIVE) {
+                HITS.incrementAndGet();
+                return copyOf(entry.account);
+            }
+        }
+
+        MISSES.incrementAndGet();
+        long generation = GENERATION.get();
+        UserAccount account = loader.load(username);
+        synchronized (RECORDS) {
+            if (account == null) {
+                RECORDS.remove(username);
+            } else if (generation == GENERATION.get()) {
+                RECORDS.put(username, new Entry(copyOf(account), now));
+            }
+        }
+        return account;
+    }
+
+    /**
+     * Drops the cached record of a user after the account was created, modified or deleted.
+     *
+     * @param username The (hashed) username.
+     */
+    public static void invalidate(String username) {
+        synchronized (RECORDS) {
+            GENERATION.incrementAndGet();
+            RECORDS.remove(username);
+        }
+    }
+
+    /**
+     * Drops every cached record.
+     */
+    public static void clear() {
+        synchronized (RECORDS) {
+            GENERATION.incrementAndGet();
+            RECORDS.clear();
+        }
+    }
+
+    /**
+     * @return The number of lookups answered from the cache.
+     */
+    public static long hits() {
+        return HITS.get();
+    }
+
+    /**
+     * @return The number of lookups that read the database.
+     */
+    public static long misses() {
+        return MISSES.get();
+    }
+
+    /**
+     * @return The number of records currently cached, including expired ones not yet evicted.
+     */
+    public static int size() {
+        synchronized (RECORDS) {
+            return RECORDS.size();
+        }
+    }
+
+    private static UserAccount copyOf(UserAccount account) {
+        UserAccount copy = new UserAccount();
+        copy.setUsername(account.getUsername());
+        copy.setName(account.getName());
+        copy.setPassword(account.getPassword());
+        copy.setSecurityKey(account.getSecurityKey());
+        copy.setPin(account.getPin());
+        copy.setAdmin(account.isAdmin());
+        return copy;
+    }
+
+    /**
+     * Reads an account record from the database.
+     */
+    @FunctionalInterface
+    interface RecordLoader {
+        UserAccount load(String username) throws Exception;
+    }
+
+    private static final class Entry {
+        final UserAccount account;
+        final long loadedAt;
+
+        Entry(UserAccount account, long loadedAt) {
+            this.account = account;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
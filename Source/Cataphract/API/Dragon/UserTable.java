@@ -0,0 +1,204 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Dragon;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes the accounts of the Master User Database table, MUD.
+ *
+ * The table stores the username, password, security key and PIN hashes as 32-byte BLOBs and
+ * the privileges as an integer flag (see {@link SchemaMigrator}); the rest of the program
+ * handles them as hexadecimal strings and "Yes"/"No". All access to the table goes through this
+ * class, which converts between the two. A value that is not a SHA3-256 hash, such as an empty
+ * security key, is stored as text and returned unchanged.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class UserTable {
+    static final String INSERT_SQL = "INSERT INTO MUD(Username, Name, Password, SecurityKey, PIN, Privileges) VALUES(?,?,?,?,?,?)";
+    static final String EXISTS_SQL = "SELECT 1 FROM MUD WHERE Username = ?";
+
+    private static final String SELECT_SQL = "SELECT Username, Name, Password, SecurityKey, PIN, Privileges FROM MUD";
+    private static final Set<String> CREDENTIAL_COLUMNS = Set.of("Name", "Password", "SecurityKey", "PIN");
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private UserTable() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Reads the account of a user.
+     *
+     * @param username The (hashed) username.
+     * @return The account, or null if the user does not exist or the database cannot be read.
+     */
+    static UserAccount find(String username) {
+        return DatabaseManager.retrieveRow(SELECT_SQL + " WHERE Username = ?", UserTable::toUserAccount, encodeHash(username));
+    }
+
+    /**
+     * Checks whether an account exists, with a statement prepared from {@link #EXISTS_SQL} that
+     * can be reused for many usernames.
+     *
+     * @param username The (hashed) username.
+     * @return true if the account exists.
+     */
+    static boolean exists(PreparedStatement statement, String username) throws SQLException {
+        statement.setObject(1, encodeHash(username));
+        try (ResultSet row = statement.executeQuery()) {
+            return row.next();
+        }
+    }
+
+    /**
+     * Passes the accounts to the handler in username order, as they are read.
+     *
+     * @param afterUsername Only the accounts after this username are read; "" reads from the first.
+     * @param limit The maximum number of accounts to read, or 0 for all of them.
+     * @param handler Handles each account.
+     * @return The number of accounts read, or -1 if the query fails.
+     */
+    static int forEach(String afterUsername, int limit, Consumer<UserAccount> handler) {
+        DatabaseManager.RowHandler rowHandler = row -> handler.accept(toUserAccount(row));
+        if (limit <= 0) {
+            return DatabaseManager.forEachRow(SELECT_SQL + " WHERE Username > ? ORDER BY Username", rowHandler, encodeHash(afterUsername));
+        }
+        return DatabaseManager.forEachRow(SELECT_SQL + " WHERE Username > ? ORDER BY Username LIMIT ?", rowHandler, encodeHash(afterUsername), limit);
+    }
+
+    /**
+     * Adds an account.
+     *
+     * @return true if the account was added.
+     */
+    static boolean insert(UserAccount account) {
+        return DatabaseManager.executeUpdate(INSERT_SQL, insertParameters(account.getUsername(), account.getName(),
+            account.getPassword(), account.getSecurityKey(), account.getPin(), account.isAdmin()));
+    }
+
+    /**
+     * Encodes the values of an account for {@link #INSERT_SQL}.
+     *
+     * @return The statement parameters, in order.
+     */
+    static Object[] insertParameters(String username, String name, String password, String securityKey, String pin, boolean admin) {
+        return new Object[] {encodeHash(username), name, encodeHash(password), encodeHash(securityKey), encodeHash(pin), admin ? 1 : 0};
+    }
+
+    /**
+     * Binds encoded parameters to a statement.
+     */
+    static void bind(PreparedStatement statement, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    /**
+     * Changes the name or one of the credentials of an account.
+     *
+     * @param column One of Name, Password, SecurityKey or PIN.
+     * @param value The new name, or the new hashed credential.
+     * @return true if the update succeeded.
+     */
+    static boolean updateCredential(String username, String column, String value) {
+        if (!CREDENTIAL_COLUMNS.contains(column)) {
+            throw new IllegalArgumentException("Not a credential column: " + column);
+        }
+        Object encodedValue = column.equals("Name") ? value : encodeHash(value);
+        return DatabaseManager.executeUpdate("UPDATE MUD SET " + column + " = ? WHERE Username = ?", encodedValue, encodeHash(username));
+    }
+
+    /**
+     * Grants or revokes administrator privileges.
+     *
+     * @return true if the update succeeded.
+     */
+    static boolean setAdmin(String username, boolean admin) {
+        return DatabaseManager.executeUpdate("UPDATE MUD SET Privileges = ? WHERE Username = ?", admin ? 1 : 0, encodeHash(username));
+    }
+
+    /**
+     * Deletes an account.
+     *
+     * @return true if the delete succeeded.
+     */
+    static boolean delete(String username) {
+        return DatabaseManager.executeUpdate("DELETE FROM MUD WHERE Username = ?", encodeHash(username));
+    }
+
+    /**
+     * Converts a hexadecimal SHA3-256 hash to the 32 bytes stored in the table. Any other value
+     * is stored as text.
+     */
+    static Object encodeHash(String value) {
+        return value != null && HASH.matcher(value).matches() ? HEX.parseHex(value) : value;
+    }
+
+    /**
+     * Reads a column written by {@link #encodeHash(String)}.
+     *
+     * @return The hexadecimal hash or the text, or "" if the column is null.
+     */
+    static String decodeHash(ResultSet row, String column) throws SQLException {
+        Object value = row.getObject(column);
+        if (value instanceof byte[]) {
+            return HEX.formatHex((byte[]) value);
+        }
+        return value != null ? value.toString() : "";
+    }
+
+    private static UserAccount toUserAccount(ResultSet row) throws SQLException {
+        UserAccount account = new UserAccount();
+        account.setUsername(decodeHash(row, "Username"));
+        String name = row.getString("Name");
+        account.setName(name != null ? name : "");
+        account.setPassword(decodeHash(row, "Password"));
+        account.setSecurityKey(decodeHash(row, "SecurityKey"));
+        account.setPin(decodeHash(row, "PIN"));
+        account.setAdmin(row.getInt("Privileges") != 0);
+        return account;
+    }
+}
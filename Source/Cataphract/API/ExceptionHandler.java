@@ -4,6 +4,7 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 
 import Cataphract.API.Wraith.FileWrite;
+import Cataphract.API.Wraith.LogLevel;
 
 /**
  * Handles exceptions by formatting stack traces, logging errors, and managing program termination.
@@ -108,7 +109,7 @@ class FileErrorLogger implements ErrorLogger {
                 .append(e.getStackTrace().toString()).append("\n")
                 .append(stackTrace).append("\n")
                 .append("User Comment> ").append(userComment).append("\n\n");
-            fileWrite.log(logContent.toString(), LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, logContent::toString, LOG_FILE_NAME);
         } catch (Exception ex) {
             Config.io.println("Error logging exception: " + ex.getMessage());
             ex.printStackTrace();
@@ -0,0 +1,198 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Minotaur;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import Cataphract.API.Dragon.Login;
+
+/**
+ * Central authorization service: decides whether a user holds a {@link Permission}.
+ *
+ * The privileges of a user and the policies in effect for the user (with the user's and group
+ * overrides applied) are resolved once, at login, into a bitset indexed by the permission
+ * ordinal, so a permission check is a single bit test. The bitset is resolved again only when
+ * the policy snapshot changes or when the user's privileges are invalidated. Only the users with
+ * an open session are kept; the permissions of any other user are resolved on each check.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public final class Authorization {
+    private static final long ALL_PERMISSIONS = (1L << Permission.values().length) - 1;
+
+    private final PolicyCheck policyCheck;
+    private final Map<String, Grants> grantsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an Authorization service resolving policies through the given policy checker.
+     * @param policyCheck The policy checker.
+     */
+    public Authorization(PolicyCheck policyCheck) {
+        this.policyCheck = policyCheck;
+    }
+
+    /**
+     * Resolves the permissions of a user who has just logged in.
+     * @param username The (hashed) username.
+     * @throws Exception If the user's privileges cannot be read.
+     */
+    public void openSession(String username) throws Exception {
+        grantsByUser.put(username, resolve(username, currentPolicies(), null));
+    }
+
+    /**
+     * Resolves the permissions of a user who has just logged in, whose privileges were read
+     * along with the account record.
+     * @param username The (hashed) username.
+     * @param admin Whether the user has administrator privileges.
+     */
+    public void openSession(String username, boolean admin) throws Exception {
+        grantsByUser.put(username, resolve(username, currentPolicies(), admin));
+    }
+
+    /**
+     * Drops the permissions resolved for a user who has logged out.
+     * @param username The (hashed) username.
+     */
+    public void closeSession(String username) {
+        grantsByUser.remove(username);
+    }
+
+    /**
+     * Checks whether the user holds the permission.
+     * @param username The (hashed) username.
+     * @param permission The permission to check.
+     * @return true if the user is an administrator or the permission's policy enables it.
+     * @throws Exception If the user's privileges cannot be read.
+     */
+    public boolean hasPermission(String username, Permission permission) throws Exception {
+        return (grantsFor(username).permissions & permission.mask) != 0;
+    }
+
+    /**
+     * Checks whether the user is an administrator.
+     * @param username The (hashed) username.
+     * @return true if the user has administrator privileges.
+     * @throws Exception If the user's privileges cannot be read.
+     */
+    public boolean isAdmin(String username) throws Exception {
+        return grantsFor(username).admin;
+    }
+
+    /**
+     * Discards the resolved permissions after a change of privileges, e.g. a promotion or the
+     * deletion of an account. If the user has an open session, its privileges are resolved again
+     * on its next check; other sessions are not affected.
+     * @param username The (hashed) username whose privileges changed.
+     */
+    public void invalidate(String username) {
+        grantsByUser.computeIfPresent(username, (name, grants) -> grants.stale());
+    }
+
+    private Grants grantsFor(String username) throws Exception {
+        Grants grants = grantsByUser.get(username);
+        PolicySnapshot policies = currentPolicies();
+        if (grants == null) {
+            // Not logged in: nothing is cached, so the map holds at most the open sessions
+            return resolve(username, policies, null);
+        }
+        Grants resolved;
+        if (grants.stale) {
+            resolved = resolve(username, policies, null);
+        } else if (grants.policies != policies) {
+            // The privileges are unchanged, only the policies are applied again
+            resolved = resolve(username, policies, grants.admin);
+        } else {
+            return grants;
+        }
+        // Only in place of the grants resolved from: a session closed meanwhile is not brought
+        // back, and an invalidation during the read is not overwritten
+        grantsByUser.replace(username, grants, resolved);
+        return resolved;
+    }
+
+    private Grants resolve(String username, PolicySnapshot policies, Boolean knownAdmin) throws Exception {
+        boolean admin = knownAdmin != null ? knownAdmin : new Login(username).checkPrivilegeLogic();
+        long permissions = 0;
+        if (admin) {
+            permissions = ALL_PERMISSIONS;
+        } else {
+            Map<String, String> values = policies == null ? Collections.emptyMap() : policies.policiesFor(username);
+            for (Permission permission : Permission.values()) {
+                if (permission.isEnabledBy(values.get(permission.getPolicyName()))) {
+                    permissions |= permission.mask;
+                }
+            }
+        }
+        return new Grants(admin, permissions, policies, false);
+    }
+
+    private PolicySnapshot currentPolicies() {
+        try {
+            return policyCheck.currentSnapshot();
+        } catch (Exception e) {
+            // Without readable policies only administrators hold permissions
+            return null;
+        }
+    }
+
+    /**
+     * The permissions of one user, resolved against one policy snapshot.
+     */
+    private static final class Grants {
+        final boolean admin;
+        final long permissions;
+        final PolicySnapshot policies;
+        final boolean stale;
+
+        Grants(boolean admin, long permissions, PolicySnapshot policies, boolean stale) {
+            this.admin = admin;
+            this.permissions = permissions;
+            this.policies = policies;
+            this.stale = stale;
+        }
+
+        /**
+         * @return A copy of these grants that is resolved again on its next use.
+         */
+        Grants stale() {
+            return new Grants(admin, permissions, policies, true);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Minotaur;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Binary layout of the policy file: a header (magic, version, entry count) followed by the
+ * sorted policy names and values as length-prefixed UTF-8 strings.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class BinaryPolicyFormat {
+    private static final int MAGIC = 0x43504F4C; // "CPOL"
+    private static final int VERSION = 1;
+
+    private BinaryPolicyFormat() {
+    }
+
+    /**
+     * Reads a policy file, converting it to the binary format first if it is still XML.
+     */
+    static Map<String, String> load(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        byte[] content = Files.readAllBytes(path);
+        if (isBinary(content)) {
+            return decode(content);
+        }
+        Map<String, String> policies = parseXml(new ByteArrayInputStream(content));
+        synchronized (PolicyFileWriter.LOCK) {
+            // Convert only if nobody replaced the file since it was read
+            if (Arrays.equals(content, Files.readAllBytes(path))) {
+                write(filePath, policies);
+            }
+        }
+        return policies;
+    }
+
+    /**
+     * Reads a policy file in the XML layout of {@link Properties#storeToXML}.
+     */
+    static Map<String, String> parseXml(InputStream configStream) throws IOException {
+        Properties prop = new Properties();
+        prop.loadFromXML(configStream);
+        Map<String, String> policies = new HashMap<>();
+        for (String name : prop.stringPropertyNames()) {
+            policies.put(name, prop.getProperty(name));
+        }
+        return policies;
+    }
+
+    static void write(String filePath, Map<String, String> policies) throws IOException {
+        PolicyFileWriter.writeAtomically(filePath, output -> encode(policies, output));
+    }
+
+    private static boolean isBinary(byte[] content) {
+        return content.length >= 4 && ByteBuffer.wrap(content).getInt() == MAGIC;
+    }
+
+    private static void encode(Map<String, String> policies, OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        Map<String, String> sorted = new TreeMap<>(policies);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(sorted.size());
+        for (Map.Entry<String, String> policy : sorted.entrySet()) {
+            data.writeUTF(policy.getKey());
+            data.writeUTF(policy.getValue());
+        }
+        data.flush();
+    }
+
+    private static Map<String, String> decode(byte[] content) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(content));
+        data.readInt();
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported policy file version: " + version);
+        }
+        int count = data.readInt();
+        Map<String, String> policies = new HashMap<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            policies.put(data.readUTF(), data.readUTF());
+        }
+        return policies;
+    }
+}
@@ -35,8 +35,21 @@
 package Cataphract.API.Minotaur;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 import Cataphract.API.Config;
 
@@ -44,6 +57,8 @@ import Cataphract.API.Config;
  * Provides cryptographic hashing utilities for strings and files.
  */
 public class Cryptography {
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
     private final HashProvider hashProvider;
 
     public Cryptography() {
@@ -110,6 +125,51 @@ public class Cryptography {
         return hashFile(file, "SHA3-256");
     }
 
+    /**
+     * Hashes a file with several algorithms in a single pass: every buffer read from the file
+     * is fed to all of the digests.
+     * @param file The file to hash.
+     * @param algorithms The algorithm names (e.g. "MD5", "SHA-256", "SHA3-256").
+     * @return The hashes by algorithm, in the requested order, or null on error.
+     */
+    public Map<String, String> fileToDigests(File file, List<String> algorithms) {
+        if (file == null || !file.exists()) {
+            Config.io.printError("File does not exist or is null.");
+            return null;
+        }
+        if (algorithms == null || algorithms.isEmpty()) {
+            Config.io.printError("No hash algorithm specified.");
+            return null;
+        }
+        List<String> distinctAlgorithms = new ArrayList<>(new LinkedHashSet<>(algorithms));
+        try {
+            List<byte[]> hashedBytes = hashProvider.hashFile(file, distinctAlgorithms);
+            Map<String, String> hashes = new LinkedHashMap<>();
+            for (int i = 0; i < distinctAlgorithms.size(); i++) {
+                hashes.put(distinctAlgorithms.get(i), convertByteArrayToHexString(hashedBytes.get(i)));
+            }
+            return hashes;
+        } catch (Exception e) {
+            Config.io.printError("Error hashing file with " + String.join(", ", distinctAlgorithms) + ": " + e.getMessage());
+            Config.exceptionHandler.handleException(e);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a hash algorithm is available.
+     * @param algorithm The algorithm name.
+     * @return true if the platform provides the algorithm.
+     */
+    public boolean isSupportedAlgorithm(String algorithm) {
+        try {
+            DefaultHashProvider.digestFor(algorithm);
+            return true;
+        } catch (NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
     private String hashString(String input, String algorithm) {
         if (input == null) {
             Config.io.printError("Cannot hash null string.");
@@ -141,11 +201,7 @@ public class Cryptography {
     }
 
     private String convertByteArrayToHexString(byte[] arrayBytes) {
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : arrayBytes) {
-            hexString.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-        }
-        return hexString.toString();
+        return HEX_FORMAT.formatHex(arrayBytes);
     }
 }
 
@@ -155,28 +211,86 @@ public class Cryptography {
 interface HashProvider {
     byte[] hashString(String input, String algorithm) throws Exception;
     byte[] hashFile(File file, String algorithm) throws Exception;
+    List<byte[]> hashFile(File file, List<String> algorithms) throws Exception;
 }
 
 /**
  * Default implementation of HashProvider using Java's MessageDigest.
+ *
+ * Looking up a digest through the security providers is far more expensive than hashing a
+ * short string, so every thread keeps one digest per algorithm and reuses it. Files are read
+ * through a {@link FileChannel} into a direct buffer kept by each thread.
  */
 class DefaultHashProvider implements HashProvider {
+    private static final int READ_BUFFER_SIZE = 128 * 1024;
+
+    private static final ThreadLocal<Map<String, MessageDigest>> DIGESTS = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BUFFER_SIZE));
+
     @Override
     public byte[] hashString(String input, String algorithm) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance(algorithm);
-        return digest.digest(input.getBytes("UTF-8"));
+        MessageDigest digest = digestFor(algorithm);
+        return digest.digest(input.getBytes(StandardCharsets.UTF_8));
     }
 
     @Override
     public byte[] hashFile(File file, String algorithm) throws Exception {
-        try (FileInputStream inputStream = new FileInputStream(file)) {
-            MessageDigest digest = MessageDigest.getInstance(algorithm);
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
-            }
-            return digest.digest();
+        return hashFile(file, Collections.singletonList(algorithm)).get(0);
+    }
+
+    @Override
+    public List<byte[]> hashFile(File file, List<String> algorithms) throws Exception {
+        MessageDigest[] digests = new MessageDigest[algorithms.size()];
+        for (int i = 0; i < digests.length; i++) {
+            digests[i] = digestFor(algorithms.get(i));
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            updateDigests(channel, digests);
+        }
+        List<byte[]> hashes = new ArrayList<>(digests.length);
+        for (MessageDigest digest : digests) {
+            hashes.add(digest.digest());
+        }
+        return hashes;
+    }
+
+    /**
+     * Feeds the whole channel to the digests through this thread's direct buffer. Each buffer is
+     * handed to every digest before the next read, so it is still in the CPU cache when the next
+     * digest reads it. Files are not memory-mapped: on Windows a mapped file cannot be deleted or
+     * moved until the mapping is garbage collected.
+     */
+    static void updateDigests(FileChannel channel, MessageDigest... digests) throws IOException {
+        ByteBuffer buffer = BUFFERS.get();
+        buffer.clear();
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            update(digests, buffer);
+            buffer.clear();
+        }
+    }
+
+    private static void update(MessageDigest[] digests, ByteBuffer data) {
+        int start = data.position();
+        for (MessageDigest digest : digests) {
+            data.position(start);
+            digest.update(data);
+        }
+    }
+
+    /**
+     * Gets this thread's digest for the algorithm, reset and ready for use.
+     */
+    static MessageDigest digestFor(String algorithm) throws NoSuchAlgorithmException {
+        Map<String, MessageDigest> digests = DIGESTS.get();
+        MessageDigest digest = digests.get(algorithm);
+        if (digest == null) {
+            digest = MessageDigest.getInstance(algorithm);
+            digests.put(algorithm, digest);
+        } else {
+            // A previous hash may have failed half way
+            digest.reset();
         }
+        return digest;
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Minotaur;
+
+/**
+ * The permissions granted through the policy file. A permission is held by every administrator,
+ * and by standard users while its policy holds the value that enables it. The policy names and
+ * values are the ones each command has always checked, e.g. file operations are enabled by
+ * "true" while account management is enabled by "on".
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public enum Permission {
+    UPDATE("update", "on"),
+    DOWNLOAD("download", "true"),
+    UPDATE_DOWNLOAD("Download", "true"),
+    SCRIPT("script", "on"),
+    FILE_READ("read", "true"),
+    FILE_VIEW("FileRead", "true"),
+    FILE_EDIT("FileWrite", "true"),
+    FILE_DELETE("delete", "true"),
+    FILE_MOVE("move", "true"),
+    FILE_ZIP("FileZip", "true"),
+    FILE_UNZIP("FileUnzip", "true"),
+    POLICY_EDITOR("policy", "on"),
+    ACCOUNT_CREATE("account_create", "on"),
+    ACCOUNT_MODIFY("account_modify", "on"),
+    ACCOUNT_DELETE("account_delete", "on");
+
+    private final String policyName;
+    private final String enabledValue;
+    final long mask = 1L << ordinal();
+
+    Permission(String policyName, String enabledValue) {
+        this.policyName = policyName;
+        this.enabledValue = enabledValue;
+    }
+
+    /**
+     * @return The name of the policy that grants this permission to standard users.
+     */
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    /**
+     * Checks whether a value of this permission's policy grants the permission.
+     * @param policyValue The policy value, or null if the policy is not set.
+     * @return true if the value enables the permission.
+     */
+    public boolean isEnabledBy(String policyValue) {
+        return enabledValue.equalsIgnoreCase(policyValue);
+    }
+}
@@ -34,23 +34,58 @@
 
 package Cataphract.API.Minotaur;
 
+import java.io.File;
 import java.io.FileInputStream;
-import java.util.Properties;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import Cataphract.API.Config;
 
 /**
  * Manages policy value retrieval for the Cataphract shell.
+ *
+ * Policies are served from an immutable in-memory snapshot of the policy file, so a lookup is a
+ * map read. The snapshot is swapped atomically once it is invalidated: by a write through
+ * {@link PolicyManager}, by a file system event on the policy file, or by a change of the file's
+ * modification time or size (checked at most once a second, for platforms whose watch service
+ * only polls).
+ *
+ * Besides the global policies, the policy file holds per-user and per-group overrides. The
+ * effective policies of every user with an override are resolved when a snapshot is loaded, so
+ * a per-user lookup costs the same map read.
  */
 public class PolicyCheck {
+    private static final long MODIFICATION_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final PolicyProvider policyProvider;
     private final String policyFilePath;
+    private final AtomicReference<PolicySnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean watcherStarted;
 
     /**
-     * Constructs a PolicyCheck with default XML policy provider and path.
+     * Constructs a PolicyCheck with the default binary policy provider and path.
      */
     public PolicyCheck() {
-        this(new XmlPolicyProvider(), Config.io.convertFileSeparator(".|System|Cataphract|Private|Policy.burn"));
+        this(new BinaryPolicyProvider(), Config.io.convertFileSeparator(".|System|Cataphract|Private|Policy.burn"));
+    }
+
+    /**
+     * Constructs a PolicyCheck for a policy file in the given format.
+     * @param policyFilePath The path to the policy file.
+     * @param binaryFormat true for the compact binary format, false for the legacy XML format.
+     */
+    public PolicyCheck(String policyFilePath, boolean binaryFormat) {
+        this(binaryFormat ? new BinaryPolicyProvider() : new XmlPolicyProvider(), policyFilePath);
     }
 
     /**
@@ -63,18 +98,37 @@ public class PolicyCheck {
         this.policyFilePath = policyFilePath;
     }
 
+    /**
+     * Checks whether the policy file exists, e.g. before the first-boot setup has created it.
+     * @return true if the policy file is present, false otherwise.
+     */
+    public boolean isPolicyFileAvailable() {
+        return new File(policyFilePath).exists();
+    }
+
     /**
      * Retrieves the policy value for the specified parameter.
      * @param policyParameter The policy key to look up.
      * @return The policy value, or "error" if not found or an error occurs.
      */
     public String retrievePolicyValue(String policyParameter) {
+        return retrievePolicyValue(null, policyParameter);
+    }
+
+    /**
+     * Retrieves the value of the specified policy in effect for a user, after applying the
+     * overrides of the user's groups and of the user.
+     * @param username The (hashed) username, or null for the global policy.
+     * @param policyParameter The policy key to look up.
+     * @return The policy value, or "error" if not found or an error occurs.
+     */
+    public String retrievePolicyValue(String username, String policyParameter) {
         if (policyParameter == null || policyParameter.trim().isEmpty()) {
             Config.io.printError("Invalid policy parameter: null or empty.");
             return "error";
         }
         try {
-            String value = policyProvider.retrievePolicy(policyFilePath, policyParameter);
+            String value = currentSnapshot().policiesFor(username).get(policyParameter);
             return value != null ? value : "error";
         } catch (Exception e) {
             Config.io.printError("Error retrieving policy '" + policyParameter + "': " + e.getMessage());
@@ -82,13 +136,120 @@ public class PolicyCheck {
             return "error";
         }
     }
+
+    /**
+     * Retrieves the global value of a policy from the current snapshot without reporting
+     * errors, for callers that look a policy up on every call, such as the log level check.
+     * The same snapshot always returns the same String instance.
+     * @param policyParameter The policy key to look up.
+     * @return The policy value, or null if it is not set or the policy file cannot be read.
+     */
+    public String peekPolicyValue(String policyParameter) {
+        if (snapshot.get() == null && !isPolicyFileAvailable()) {
+            // Before setup there is no policy file to read
+            return null;
+        }
+        try {
+            return currentSnapshot().policiesFor(null).get(policyParameter);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Discards the cached policies, so the next lookup re-reads the policy file.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    PolicySnapshot currentSnapshot() throws Exception {
+        PolicySnapshot current = snapshot.get();
+        if (current != null && current.generation == generation.get() && !isModifiedOnDisk(current)) {
+            return current;
+        }
+        // Taken before reading, so an invalidation during the read is not lost
+        long readGeneration = generation.get();
+        File policyFile = new File(policyFilePath);
+        long lastModified = policyFile.lastModified();
+        long length = policyFile.length();
+        PolicySnapshot loaded = new PolicySnapshot(policyProvider.loadPolicies(policyFilePath), readGeneration, lastModified, length, System.nanoTime());
+        snapshot.set(loaded);
+        startWatcher(policyFile);
+        return loaded;
+    }
+
+    private boolean isModifiedOnDisk(PolicySnapshot current) {
+        long now = System.nanoTime();
+        long checkedAt = current.checkedAtNanos;
+        if (now - checkedAt < MODIFICATION_CHECK_INTERVAL_NANOS) {
+            return false;
+        }
+        current.checkedAtNanos = now;
+        File policyFile = new File(policyFilePath);
+        return policyFile.lastModified() != current.lastModified || policyFile.length() != current.length;
+    }
+
+    private void startWatcher(File policyFile) {
+        if (watcherStarted) {
+            return;
+        }
+        synchronized (this) {
+            File directory = policyFile.getAbsoluteFile().getParentFile();
+            if (watcherStarted || directory == null || !directory.isDirectory()) {
+                return;
+            }
+            try {
+                WatchService watchService = FileSystems.getDefault().newWatchService();
+                directory.toPath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                Thread watcher = new Thread(() -> watchPolicyFile(watchService, policyFile.getName()), "Minotaur-PolicyWatcher");
+                watcher.setDaemon(true);
+                watcher.start();
+                watcherStarted = true;
+            } catch (Exception e) {
+                // Without a watcher, changes are still picked up through the modification time
+                watcherStarted = true;
+            }
+        }
+    }
+
+    private void watchPolicyFile(WatchService watchService, String policyFileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                        (context instanceof Path && policyFileName.equals(((Path) context).getFileName().toString()))) {
+                        invalidate();
+                    }
+                }
+                if (!key.reset()) {
+                    // The directory is gone; fall back to the modification time check
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
 
 /**
  * Interface for policy value retrieval.
  */
 interface PolicyProvider {
-    String retrievePolicy(String filePath, String policyParameter) throws Exception;
+    /**
+     * Reads every policy from the policy file.
+     */
+    Map<String, String> loadPolicies(String filePath) throws Exception;
+
+    default String retrievePolicy(String filePath, String policyParameter) throws Exception {
+        return loadPolicies(filePath).get(policyParameter);
+    }
 }
 
 /**
@@ -96,11 +257,20 @@ interface PolicyProvider {
  */
 class XmlPolicyProvider implements PolicyProvider {
     @Override
-    public String retrievePolicy(String filePath, String policyParameter) throws Exception {
+    public Map<String, String> loadPolicies(String filePath) throws Exception {
         try (FileInputStream configStream = new FileInputStream(filePath)) {
-            Properties prop = new Properties();
-            prop.loadFromXML(configStream);
-            return prop.getProperty(policyParameter);
+            return BinaryPolicyFormat.parseXml(configStream);
         }
     }
+}
+
+/**
+ * Compact binary policy provider. A policy file still in the XML format is converted in place
+ * the first time it is read.
+ */
+class BinaryPolicyProvider implements PolicyProvider {
+    @Override
+    public Map<String, String> loadPolicies(String filePath) throws Exception {
+        return BinaryPolicyFormat.load(filePath);
+    }
 }
\ No newline at end of file
@@ -36,9 +36,14 @@ package Cataphract.API.Minotaur;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import Cataphract.API.Config;
 import Cataphract.API.Dragon.Login;
@@ -51,13 +56,14 @@ public class PolicyManager {
     private final Authenticator authenticator;
     private final String policyFilePath;
     private final String[] defaultPolicies = {"update", "download", "script", "filemgmt", "read", "edit", "policy", "account_create", "account_delete", "account_modify"};
-    private boolean isUserAdmin;
+    // The (hashed) username of the authenticated user
+    private String username;
 
     /**
-     * Constructs a PolicyManager with default XML storage and path.
+     * Constructs a PolicyManager with default binary storage and path.
      */
     public PolicyManager() {
-        this(new XmlPolicyStorage(), new LoginAuthenticator(), Config.io.convertFileSeparator(".|System|Cataphract|Private|Policy.burn"));
+        this(new BinaryPolicyStorage(), new LoginAuthenticator(), Config.io.convertFileSeparator(".|System|Cataphract|Private|Policy.burn"));
     }
 
     /**
@@ -79,8 +85,7 @@ public class PolicyManager {
                 Config.io.printError("Authentication Failure. Exiting...");
                 return;
             }
-            String policyStatus = Config.policyCheck.retrievePolicyValue("policy");
-            if (policyStatus.equalsIgnoreCase("on") || isUserAdmin) {
+            if (Config.authorization.hasPermission(username, Permission.POLICY_EDITOR)) {
                 runPolicyEditor();
             } else {
                 Config.io.printError("Policy Management Disabled: Insufficient Privileges");
@@ -115,13 +120,15 @@ public class PolicyManager {
         String hashedPassword = Config.cryptography.stringToSHA3_256(password != null ? new String(password) : "");
         char[] securityKey = Config.console.readPassword("Security Key: ");
         String hashedSecurityKey = Config.cryptography.stringToSHA3_256(securityKey != null ? new String(securityKey) : "");
-        boolean authenticated = authenticator.authenticate(hashedUsername, hashedPassword, hashedSecurityKey);
-        isUserAdmin = authenticator.isAdmin(hashedUsername);
-        return authenticated;
+        if (!authenticator.authenticate(hashedUsername, hashedPassword, hashedSecurityKey)) {
+            return false;
+        }
+        this.username = hashedUsername;
+        return true;
     }
 
     private void runPolicyEditor() throws Exception {
-        String suggestedInputs = "[ MODIFY " + (isUserAdmin ? "| RESET " : "") + "| REFRESH | HELP | EXIT ]";
+        String suggestedInputs = "[ MODIFY " + (Config.authorization.isAdmin(username) ? "| OVERRIDE | GROUP | RESET " : "") + "| REFRESH | HELP | EXIT ]";
         Config.build.viewBuildInfo(false);
         displayPolicyInfo(suggestedInputs);
         String input;
@@ -136,14 +143,36 @@ public class PolicyManager {
             }
             switch (policyCommandArray[0].toLowerCase()) {
                 case "modify":
-                    if (policyCommandArray.length < 3) {
-                        Config.io.printError("Invalid Syntax: Expected 'modify <policy> <value>'");
+                    if (policyCommandArray.length < 3 || policyCommandArray.length % 2 == 0) {
+                        Config.io.printError("Invalid Syntax: Expected 'modify <policy> <value> [<policy> <value> ...]'");
+                    } else {
+                        Map<String, String> policies = new LinkedHashMap<>();
+                        for (int i = 1; i < policyCommandArray.length; i += 2) {
+                            policies.put(policyCommandArray[i], policyCommandArray[i + 1]);
+                        }
+                        if (policies.keySet().stream().anyMatch(PolicyOverrides::isOverrideKey)) {
+                            Config.io.printError("Use 'override' and 'group' to change per-user and per-group policies.");
+                        } else {
+                            savePolicies(policies);
+                        }
+                    }
+                    break;
+                case "override":
+                    if (Config.authorization.isAdmin(username)) {
+                        overridePolicy(policyCommandArray);
                     } else {
-                        savePolicy(policyCommandArray[1], policyCommandArray[2]);
+                        Config.io.printError("Policy overrides restricted to administrators.");
+                    }
+                    break;
+                case "group":
+                    if (Config.authorization.isAdmin(username)) {
+                        changeGroupMembership(policyCommandArray);
+                    } else {
+                        Config.io.printError("Group management restricted to administrators.");
                     }
                     break;
                 case "reset":
-                    if (isUserAdmin) {
+                    if (Config.authorization.isAdmin(username)) {
                         Config.io.printAttention("Resetting Policy File...");
                         resetPolicyFile();
                     } else {
@@ -173,32 +202,129 @@ public class PolicyManager {
         Config.io.println("      - Current Policy Configuration -      ");
         Config.io.println("--------------------------------------------");
         Config.io.println("\nPolicy File  : " + policyFilePath);
-        Config.io.println("Policy Format: XML\n");
+        Config.io.println("Policy Format: " + policyStorage.getFormatName() + "\n");
         Properties props = policyStorage.loadPolicies(policyFilePath);
-        props.list(System.out);
+        Properties globalPolicies = new Properties();
+        Map<String, String> overrides = new TreeMap<>();
+        for (String name : props.stringPropertyNames()) {
+            if (PolicyOverrides.isOverrideKey(name)) {
+                overrides.put(name, props.getProperty(name));
+            } else {
+                globalPolicies.setProperty(name, props.getProperty(name));
+            }
+        }
+        globalPolicies.list(System.out);
+        if (!overrides.isEmpty()) {
+            Config.io.println("\n-- user and group overrides --");
+            overrides.forEach((name, value) -> Config.io.println(name + "=" + value));
+        }
         Config.io.println("\n--------------------------------------------\n");
         Config.io.println(suggestedInputs + "\n");
     }
 
-    private void savePolicy(String policyName, String policyValue) throws Exception {
-        if (policyName == null || policyValue == null || policyName.trim().isEmpty()) {
-            Config.io.printError("Invalid policy name or value.");
+    /**
+     * Sets or overrides a policy for one user or one group:
+     * override &lt;user|group&gt; &lt;name&gt; &lt;policy&gt; &lt;value|clear&gt;
+     */
+    private void overridePolicy(String[] commandArray) throws Exception {
+        if (commandArray.length != 5 || !(commandArray[1].equalsIgnoreCase("user") || commandArray[1].equalsIgnoreCase("group"))) {
+            Config.io.printError("Invalid Syntax: Expected 'override <user|group> <name> <policy> <value|clear>'");
+            return;
+        }
+        if (!PolicyOverrides.isValidName(commandArray[2]) || !PolicyOverrides.isValidName(commandArray[3])) {
+            Config.io.printError("Names may only contain letters, digits, '_' and '-'.");
             return;
         }
-        policyStorage.savePolicy(policyFilePath, policyName, policyValue);
-        Config.io.printInfo("Policy '" + policyName + "' set to '" + policyValue + "'.");
+        String policyName;
+        if (commandArray[1].equalsIgnoreCase("user")) {
+            String username = findUser(commandArray[2]);
+            if (username == null) {
+                return;
+            }
+            policyName = PolicyOverrides.userKey(username, commandArray[3]);
+        } else {
+            policyName = PolicyOverrides.groupKey(commandArray[2], commandArray[3]);
+        }
+        String policyValue = commandArray[4].equalsIgnoreCase("clear") ? null : commandArray[4];
+        savePolicies(Collections.singletonMap(policyName, policyValue));
+    }
+
+    /**
+     * Adds a user to a group or removes the user from it:
+     * group &lt;join|leave&gt; &lt;username&gt; &lt;group&gt;
+     */
+    private void changeGroupMembership(String[] commandArray) throws Exception {
+        if (commandArray.length != 4 || !(commandArray[1].equalsIgnoreCase("join") || commandArray[1].equalsIgnoreCase("leave"))) {
+            Config.io.printError("Invalid Syntax: Expected 'group <join|leave> <username> <group>'");
+            return;
+        }
+        String group = commandArray[3];
+        if (!PolicyOverrides.isValidName(group)) {
+            Config.io.printError("Names may only contain letters, digits, '_' and '-'.");
+            return;
+        }
+        String username = findUser(commandArray[2]);
+        if (username == null) {
+            return;
+        }
+        boolean join = commandArray[1].equalsIgnoreCase("join");
+        // The membership entry is read and written back without another writer in between
+        synchronized (PolicyFileWriter.LOCK) {
+            String memberKey = PolicyOverrides.memberKey(username);
+            List<String> groups = PolicyOverrides.parseGroups(policyStorage.loadPolicies(policyFilePath).getProperty(memberKey));
+            boolean changed = join ? !groups.contains(group) && groups.add(group) : groups.remove(group);
+            if (!changed) {
+                Config.io.printInfo("User '" + commandArray[2] + "' is " + (join ? "already" : "not") + " a member of '" + group + "'.");
+                return;
+            }
+            savePolicies(Collections.singletonMap(memberKey, groups.isEmpty() ? null : String.join(",", groups)));
+        }
+    }
+
+    private String findUser(String accountName) throws Exception {
+        String username = Config.cryptography.stringToSHA3_256(accountName);
+        if (!new Login(username).checkUserExistence()) {
+            Config.io.printError("User '" + accountName + "' does not exist.");
+            return null;
+        }
+        return username;
+    }
+
+    private void savePolicies(Map<String, String> policies) throws Exception {
+        for (Map.Entry<String, String> policy : policies.entrySet()) {
+            if (policy.getKey() == null || policy.getKey().trim().isEmpty()) {
+                Config.io.printError("Invalid policy name or value.");
+                return;
+            }
+        }
+        // All policies are written in one atomic replace of the policy file
+        policyStorage.saveAll(policyFilePath, policies);
+        Config.policyCheck.invalidate();
+        for (Map.Entry<String, String> policy : policies.entrySet()) {
+            Config.io.printInfo(policy.getValue() == null ? "Policy '" + policy.getKey() + "' cleared." : "Policy '" + policy.getKey() + "' set to '" + policy.getValue() + "'.");
+        }
     }
 
     private void resetPolicyFile() throws Exception {
-        new File(policyFilePath).delete();
+        Map<String, String> policies = new LinkedHashMap<>();
         for (String policy : defaultPolicies) {
-            policyStorage.savePolicy(policyFilePath, policy, "on");
+            policies.put(policy, "on");
         }
         SecureRandom random = new SecureRandom();
-        policyStorage.savePolicy(policyFilePath, "sysname", "SYSTEM" + (100000 + random.nextInt(900000)));
-        policyStorage.savePolicy(policyFilePath, "module", "off");
-        policyStorage.savePolicy(policyFilePath, "policy", "off");
-        policyStorage.savePolicy(policyFilePath, "auth", "off");
+        policies.put("sysname", "SYSTEM" + (100000 + random.nextInt(900000)));
+        policies.put("module", "off");
+        policies.put("policy", "off");
+        policies.put("auth", "off");
+        policies.put("log_max_size", "1024");
+        policies.put("log_max_age", "24");
+        policies.put("log_retention", "10");
+        policies.put("log_level", "info");
+        policies.put("log_format", "text");
+        policies.put("integrity_full_check", "10");
+        policies.put("integrity_monitor_interval", "60");
+        policies.put("integrity_monitor_rate", "4096");
+        policyStorage.replaceAll(policyFilePath, policies);
+        Config.policyCheck.invalidate();
     }
 }
 
@@ -207,7 +333,26 @@ public class PolicyManager {
  */
 interface PolicyStorage {
     Properties loadPolicies(String filePath) throws Exception;
-    void savePolicy(String filePath, String policyName, String policyValue) throws Exception;
+
+    /**
+     * Merges the given policies into the policy file in a single atomic write. A null value
+     * removes the policy.
+     */
+    void saveAll(String filePath, Map<String, String> policies) throws Exception;
+
+    /**
+     * Replaces the whole policy file with the given policies in a single atomic write.
+     */
+    void replaceAll(String filePath, Map<String, String> policies) throws Exception;
+
+    default void savePolicy(String filePath, String policyName, String policyValue) throws Exception {
+        saveAll(filePath, Collections.singletonMap(policyName, policyValue));
+    }
+
+    /**
+     * Gets the name of the file format, as shown in the policy editor.
+     */
+    String getFormatName();
 }
 
 /**
@@ -224,19 +369,81 @@ class XmlPolicyStorage implements PolicyStorage {
     }
 
     @Override
-    public void savePolicy(String filePath, String policyName, String policyValue) throws Exception {
+    public void saveAll(String filePath, Map<String, String> policies) throws Exception {
+        synchronized (PolicyFileWriter.LOCK) {
+            Properties props = new Properties();
+            File file = new File(filePath);
+            if (file.exists()) {
+                try (FileInputStream configStream = new FileInputStream(file)) {
+                    props.loadFromXML(configStream);
+                }
+            }
+            for (Map.Entry<String, String> policy : policies.entrySet()) {
+                if (policy.getValue() == null) {
+                    props.remove(policy.getKey());
+                } else {
+                    props.setProperty(policy.getKey(), policy.getValue());
+                }
+            }
+            PolicyFileWriter.writeAtomically(filePath, output -> props.storeToXML(output, "CataphractSettings"));
+        }
+    }
+
+    @Override
+    public void replaceAll(String filePath, Map<String, String> policies) throws Exception {
+        synchronized (PolicyFileWriter.LOCK) {
+            Properties props = new Properties();
+            props.putAll(policies);
+            PolicyFileWriter.writeAtomically(filePath, output -> props.storeToXML(output, "CataphractSettings"));
+        }
+    }
+
+    @Override
+    public String getFormatName() {
+        return "XML";
+    }
+}
+
+/**
+ * Compact binary policy storage. An XML policy file is converted on its first access.
+ */
+class BinaryPolicyStorage implements PolicyStorage {
+    @Override
+    public Properties loadPolicies(String filePath) throws Exception {
         Properties props = new Properties();
-        File file = new File(filePath);
-        if (file.exists()) {
-            try (FileInputStream configStream = new FileInputStream(file)) {
-                props.loadFromXML(configStream);
+        props.putAll(BinaryPolicyFormat.load(filePath));
+        return props;
+    }
+
+    @Override
+    public void saveAll(String filePath, Map<String, String> policies) throws Exception {
+        synchronized (PolicyFileWriter.LOCK) {
+            Map<String, String> merged = new HashMap<>();
+            if (new File(filePath).exists()) {
+                merged.putAll(BinaryPolicyFormat.load(filePath));
             }
+            for (Map.Entry<String, String> policy : policies.entrySet()) {
+                if (policy.getValue() == null) {
+                    merged.remove(policy.getKey());
+                } else {
+                    merged.put(policy.getKey(), policy.getValue());
+                }
+            }
+            BinaryPolicyFormat.write(filePath, merged);
         }
-        props.setProperty(policyName, policyValue);
-        try (FileOutputStream output = new FileOutputStream(filePath)) {
-            props.storeToXML(output, "CataphractSettings");
+    }
+
+    @Override
+    public void replaceAll(String filePath, Map<String, String> policies) throws Exception {
+        synchronized (PolicyFileWriter.LOCK) {
+            BinaryPolicyFormat.write(filePath, policies);
         }
     }
+
+    @Override
+    public String getFormatName() {
+        return "Binary";
+    }
 }
 
 /**
@@ -258,6 +465,6 @@ class LoginAuthenticator implements Authenticator {
 
     @Override
     public boolean isAdmin(String username) throws Exception {
-        return new Login(username).checkPrivilegeLogic();
+        return Config.authorization.isAdmin(username);
     }
 }
\ No newline at end of file
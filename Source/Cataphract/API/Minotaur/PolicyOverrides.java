@@ -0,0 +1,142 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Minotaur;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Naming scheme of the override entries in the policy file, and their resolution on top of the
+ * global policies. Overrides are applied in order of precedence: global policies, then the
+ * user's groups in the order they were joined, then the user's own overrides.
+ *
+ * <pre>
+ * user.&lt;username&gt;.&lt;policy&gt;   a policy override for one user
+ * group.&lt;group&gt;.&lt;policy&gt;     a policy override for the members of a group
+ * member.&lt;username&gt;            the comma separated groups of a user
+ * </pre>
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class PolicyOverrides {
+    static final String USER_PREFIX = "user.";
+    static final String GROUP_PREFIX = "group.";
+    static final String MEMBER_PREFIX = "member.";
+
+    private PolicyOverrides() {
+    }
+
+    static String userKey(String username, String policyName) {
+        return USER_PREFIX + username + "." + policyName;
+    }
+
+    static String groupKey(String group, String policyName) {
+        return GROUP_PREFIX + group + "." + policyName;
+    }
+
+    static String memberKey(String username) {
+        return MEMBER_PREFIX + username;
+    }
+
+    static boolean isOverrideKey(String name) {
+        return name.startsWith(USER_PREFIX) || name.startsWith(GROUP_PREFIX) || name.startsWith(MEMBER_PREFIX);
+    }
+
+    /**
+     * Checks a user name, group name or policy name for use in an override key.
+     */
+    static boolean isValidName(String name) {
+        return name != null && name.matches("[A-Za-z0-9_-]+");
+    }
+
+    static List<String> parseGroups(String members) {
+        List<String> groups = new ArrayList<>();
+        if (members != null) {
+            for (String group : members.split(",")) {
+                if (!group.trim().isEmpty()) {
+                    groups.add(group.trim());
+                }
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Resolves the effective policies of every user that has an override or a group.
+     */
+    static Map<String, Map<String, String>> resolve(Map<String, String> global, Map<String, String> entries) {
+        Map<String, Map<String, String>> userOverrides = new HashMap<>();
+        Map<String, Map<String, String>> groupOverrides = new HashMap<>();
+        Map<String, List<String>> memberships = new HashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String name = entry.getKey();
+            if (name.startsWith(USER_PREFIX)) {
+                addOverride(userOverrides, name.substring(USER_PREFIX.length()), entry.getValue());
+            } else if (name.startsWith(GROUP_PREFIX)) {
+                addOverride(groupOverrides, name.substring(GROUP_PREFIX.length()), entry.getValue());
+            } else if (name.startsWith(MEMBER_PREFIX)) {
+                memberships.put(name.substring(MEMBER_PREFIX.length()), parseGroups(entry.getValue()));
+            }
+        }
+        Set<String> users = new HashSet<>(userOverrides.keySet());
+        users.addAll(memberships.keySet());
+        Map<String, Map<String, String>> effectiveByUser = new HashMap<>();
+        for (String user : users) {
+            Map<String, String> effective = new HashMap<>(global);
+            for (String group : memberships.getOrDefault(user, Collections.emptyList())) {
+                effective.putAll(groupOverrides.getOrDefault(group, Collections.emptyMap()));
+            }
+            effective.putAll(userOverrides.getOrDefault(user, Collections.emptyMap()));
+            effectiveByUser.put(user, Collections.unmodifiableMap(effective));
+        }
+        return Collections.unmodifiableMap(effectiveByUser);
+    }
+
+    private static void addOverride(Map<String, Map<String, String>> overrides, String scopedName, String value) {
+        int separator = scopedName.indexOf('.');
+        if (separator <= 0 || separator == scopedName.length() - 1) {
+            return;
+        }
+        overrides.computeIfAbsent(scopedName.substring(0, separator), scope -> new HashMap<>())
+                 .put(scopedName.substring(separator + 1), value);
+    }
+}
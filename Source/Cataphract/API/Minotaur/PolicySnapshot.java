@@ -0,0 +1,80 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Minotaur;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of the policy file at one point in time.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class PolicySnapshot {
+    final Map<String, String> policies;
+    final Map<String, Map<String, String>> effectiveByUser;
+    final long generation;
+    final long lastModified;
+    final long length;
+    volatile long checkedAtNanos;
+
+    PolicySnapshot(Map<String, String> entries, long generation, long lastModified, long length, long checkedAtNanos) {
+        Map<String, String> global = new HashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!PolicyOverrides.isOverrideKey(entry.getKey())) {
+                global.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.policies = Collections.unmodifiableMap(global);
+        this.effectiveByUser = PolicyOverrides.resolve(policies, entries);
+        this.generation = generation;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.checkedAtNanos = checkedAtNanos;
+    }
+
+    /**
+     * @return The effective policies of the user, or the global policies for a user without overrides.
+     */
+    Map<String, String> policiesFor(String username) {
+        if (username == null) {
+            return policies;
+        }
+        return effectiveByUser.getOrDefault(username, policies);
+    }
+}
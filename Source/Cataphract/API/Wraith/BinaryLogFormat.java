@@ -0,0 +1,379 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Wraith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * On-disk layout of binary log segments (.blog) and their sparse time index (.bidx).
+ *
+ * A segment starts with an 8 byte header (magic, version) followed by length-prefixed records:
+ * {@code int length, long epochMillis, byte level, short+bytes source, short+bytes user, int+bytes message}.
+ *
+ * The index has the same header followed by one fixed-size entry per block of records:
+ * {@code long offset, int length, int count, long minEpochMillis, long maxEpochMillis}.
+ * Blocks are closed every {@link #INDEX_INTERVAL} records and at every flush, so a reader only
+ * decodes the blocks overlapping the requested time range instead of the whole segment.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class BinaryLogFormat {
+    static final String SEGMENT_EXTENSION = ".blog";
+    static final String INDEX_EXTENSION = ".bidx";
+    static final int INDEX_INTERVAL = 256;
+    static final int HEADER_BYTES = 8;
+    static final int INDEX_ENTRY_BYTES = 32;
+
+    private static final int SEGMENT_MAGIC = 0x434C4F47; // "CLOG"
+    private static final int INDEX_MAGIC = 0x43494458;   // "CIDX"
+    private static final int VERSION = 1;
+    private static final int MIN_RECORD_BYTES = 8 + 1 + 2 + 2 + 4;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int SCAN_CHUNK_BYTES = 64 * 1024;
+
+    private BinaryLogFormat() {
+    }
+
+    /**
+     * Receives the records found by {@link #scan}.
+     */
+    interface RecordVisitor {
+        /**
+         * @param offset The offset of the record in the segment.
+         * @param body   The record body, positioned after the length prefix and limited to the record.
+         */
+        void visit(long offset, ByteBuffer body) throws IOException;
+    }
+
+    /**
+     * A contiguous run of records described by one index entry.
+     */
+    static final class Block {
+        final long offset;
+        int length;
+        int count;
+        long minEpochMillis = Long.MAX_VALUE;
+        long maxEpochMillis = Long.MIN_VALUE;
+
+        Block(long offset) {
+            this.offset = offset;
+        }
+
+        void add(long epochMillis, int recordBytes) {
+            length += recordBytes;
+            count++;
+            minEpochMillis = Math.min(minEpochMillis, epochMillis);
+            maxEpochMillis = Math.max(maxEpochMillis, epochMillis);
+        }
+
+        long end() {
+            return offset + length;
+        }
+
+        boolean overlaps(long fromMillis, long toMillis) {
+            return maxEpochMillis >= fromMillis && minEpochMillis <= toMillis;
+        }
+    }
+
+    static Path indexPathFor(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.length() - SEGMENT_EXTENSION.length()) + INDEX_EXTENSION);
+    }
+
+    /**
+     * Appends one encoded record to the output. A message that would make the record larger
+     * than the reader accepts is truncated, so every record written can be read back.
+     *
+     * @return The number of bytes written, including the length prefix.
+     */
+    static int encode(LogRecord record, ByteArrayOutputStream out) {
+        byte[] source = truncate(record.fileName.getBytes(StandardCharsets.UTF_8));
+        byte[] user = truncate(record.user == null ? new byte[0] : record.user.getBytes(StandardCharsets.UTF_8));
+        byte[] message = record.message == null ? new byte[0] : record.message.getBytes(StandardCharsets.UTF_8);
+        message = truncateUtf8(message, MAX_RECORD_BYTES - MIN_RECORD_BYTES - source.length - user.length);
+        int length = MIN_RECORD_BYTES + source.length + user.length + message.length;
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        buffer.putInt(length)
+              .putLong(record.epochMillis)
+              .put((byte) record.level.ordinal())
+              .putShort((short) source.length).put(source)
+              .putShort((short) user.length).put(user)
+              .putInt(message.length).put(message);
+        out.write(buffer.array(), 0, buffer.position());
+        return buffer.position();
+    }
+
+    /**
+     * Decodes a record body handed out by {@link #scan}.
+     */
+    static LogQuery.Entry decode(ByteBuffer body) throws IOException {
+        long epochMillis = body.getLong();
+        int levelOrdinal = body.get();
+        LogLevel[] levels = LogLevel.values();
+        if (levelOrdinal < 0 || levelOrdinal >= levels.length) {
+            throw new IOException("Unknown log level in binary record: " + levelOrdinal);
+        }
+        String source = readString(body, Short.toUnsignedInt(body.getShort()));
+        String user = readString(body, Short.toUnsignedInt(body.getShort()));
+        String message = readString(body, body.getInt());
+        return new LogQuery.Entry(epochMillis, levels[levelOrdinal], source, user, message);
+    }
+
+    /**
+     * Reads the epoch of a record without decoding the rest of it.
+     */
+    static long epochOf(ByteBuffer body) {
+        return body.getLong(body.position());
+    }
+
+    static void writeSegmentHeader(FileChannel channel) throws IOException {
+        writeHeader(channel, SEGMENT_MAGIC);
+    }
+
+    static void writeIndexHeader(FileChannel channel) throws IOException {
+        writeHeader(channel, INDEX_MAGIC);
+    }
+
+    /**
+     * Writes index entries for blocks whose offsets are relative to {@code baseOffset}.
+     */
+    static void writeIndexEntries(FileChannel channel, List<Block> blocks, long baseOffset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.size() * INDEX_ENTRY_BYTES);
+        for (Block block : blocks) {
+            buffer.putLong(baseOffset + block.offset)
+                  .putInt(block.length)
+                  .putInt(block.count)
+                  .putLong(block.minEpochMillis)
+                  .putLong(block.maxEpochMillis);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads the index of a segment. A missing or foreign index yields an empty list, in which
+     * case the reader falls back to scanning the segment.
+     */
+    static List<Block> readIndex(Path indexPath) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        if (!Files.exists(indexPath)) {
+            return blocks;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath)) {
+            readIndex(channel, blocks);
+        }
+        return blocks;
+    }
+
+    /**
+     * Makes an existing segment and its index consistent after an unclean shutdown: a torn last
+     * record is cut off and records that were written but not yet indexed are indexed.
+     *
+     * @param segment The segment channel, opened for reading and writing.
+     * @param index   The index channel, opened for reading and writing.
+     * @return The size of the segment, i.e. the offset where the next record goes.
+     */
+    static long repair(FileChannel segment, FileChannel index) throws IOException {
+        if (!hasHeader(segment, SEGMENT_MAGIC)) {
+            throw new IOException("Not a binary log segment");
+        }
+        List<Block> blocks = new ArrayList<>();
+        if (!hasHeader(index, INDEX_MAGIC)) {
+            index.truncate(0);
+            writeHeader(index, INDEX_MAGIC);
+        } else {
+            readIndex(index, blocks);
+        }
+        long indexedEnd = blocks.isEmpty() ? HEADER_BYTES : blocks.get(blocks.size() - 1).end();
+        if (indexedEnd > segment.size()) {
+            // The index refers to data that never reached the disk: rebuild it from scratch
+            blocks.clear();
+            indexedEnd = HEADER_BYTES;
+        }
+        index.truncate(HEADER_BYTES + (long) blocks.size() * INDEX_ENTRY_BYTES);
+
+        List<Block> missing = new ArrayList<>();
+        long end = scan(segment, indexedEnd, segment.size(), (offset, body) -> {
+            Block block = missing.isEmpty() ? null : missing.get(missing.size() - 1);
+            if (block == null || block.count >= INDEX_INTERVAL) {
+                block = new Block(offset);
+                missing.add(block);
+            }
+            block.add(epochOf(body), 4 + body.remaining());
+        });
+        if (end < segment.size()) {
+            segment.truncate(end);
+        }
+        index.position(index.size());
+        writeIndexEntries(index, missing, 0);
+        return end;
+    }
+
+    /**
+     * Walks the complete records between two offsets, reading the segment in chunks.
+     *
+     * @return The offset just past the last complete record.
+     */
+    static long scan(FileChannel channel, long from, long to, RecordVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_CHUNK_BYTES);
+        long bufferOffset = from;
+        long readPosition = from;
+        buffer.limit(0);
+        while (true) {
+            int needed = 4;
+            if (buffer.remaining() >= 4) {
+                int length = buffer.getInt(buffer.position());
+                if (length < MIN_RECORD_BYTES || length > MAX_RECORD_BYTES) {
+                    // Garbage where a record should start: treat the rest of the range as lost
+                    return bufferOffset;
+                }
+                needed = 4 + length;
+                if (buffer.remaining() >= needed) {
+                    ByteBuffer body = buffer.duplicate();
+                    body.position(buffer.position() + 4).limit(buffer.position() + needed);
+                    visitor.visit(bufferOffset, body);
+                    buffer.position(buffer.position() + needed);
+                    bufferOffset += needed;
+                    continue;
+                }
+            }
+            if (readPosition >= to) {
+                return bufferOffset;
+            }
+            if (needed > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(needed);
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + (to - readPosition)));
+            int read = channel.read(buffer, readPosition);
+            if (read <= 0) {
+                return bufferOffset;
+            }
+            readPosition += read;
+            buffer.flip();
+        }
+    }
+
+    private static void readIndex(FileChannel channel, List<Block> blocks) throws IOException {
+        if (!hasHeader(channel, INDEX_MAGIC)) {
+            return;
+        }
+        long entries = (channel.size() - HEADER_BYTES) / INDEX_ENTRY_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(entries * INDEX_ENTRY_BYTES, Integer.MAX_VALUE - 8));
+        long position = HEADER_BYTES;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= INDEX_ENTRY_BYTES) {
+            Block block = new Block(buffer.getLong());
+            block.length = buffer.getInt();
+            block.count = buffer.getInt();
+            block.minEpochMillis = buffer.getLong();
+            block.maxEpochMillis = buffer.getLong();
+            blocks.add(block);
+        }
+    }
+
+    private static boolean hasHeader(FileChannel channel, int magic) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete
+        }
+        header.flip();
+        return header.getInt() == magic && header.getInt() == VERSION;
+    }
+
+    private static void writeHeader(FileChannel channel, int magic) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(magic).putInt(VERSION);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        channel.position(HEADER_BYTES);
+    }
+
+    private static String readString(ByteBuffer body, int length) throws IOException {
+        if (length < 0 || length > body.remaining()) {
+            throw new IOException("Corrupt binary log record");
+        }
+        String value = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+        body.position(body.position() + length);
+        return value;
+    }
+
+    private static byte[] truncate(byte[] value) {
+        return truncateUtf8(value, 0xFFFF);
+    }
+
+    /**
+     * Truncates UTF-8 text to at most the given number of bytes, without splitting a character.
+     */
+    static byte[] truncateUtf8(byte[] value, int maxBytes) {
+        if (value.length <= maxBytes) {
+            return value;
+        }
+        int length = maxBytes;
+        // Back off over continuation bytes to the start of the character that does not fit
+        while (length > 0 && (value[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return Arrays.copyOf(value, length);
+    }
+}
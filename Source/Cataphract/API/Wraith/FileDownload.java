@@ -7,6 +7,7 @@ import java.nio.file.Path;
 
 import Cataphract.API.Config;
 import Cataphract.API.Dragon.Login;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * Handles file downloading operations for the Cataphract shell.
@@ -42,7 +43,7 @@ public class FileDownload implements IFileOperation {
         String url = commandArray[1];
         String filename = commandArray[2];
 
-        if (!hasPermission("Download")) {
+        if (!hasPermission(Permission.UPDATE_DOWNLOAD)) {
             Config.io.printError("Insufficient privileges to download files.");
             return;
         }
@@ -78,13 +79,12 @@ public class FileDownload implements IFileOperation {
     /**
      * Checks if the user has the specified permission.
      *
-     * @param permission The permission to check (e.g., "Download").
+     * @param permission The permission to check (e.g., UPDATE_DOWNLOAD).
      * @return true if the user has the permission, false otherwise.
-     * @throws Exception If a database error occurs.
+     * @throws Exception If the user's privileges cannot be read.
      */
-    private boolean hasPermission(String permission) throws Exception {
-        String policyValue = Config.policyCheck.retrievePolicyValue(permission);
-        return login.checkPrivilegeLogic() || "true".equalsIgnoreCase(policyValue);
+    private boolean hasPermission(Permission permission) throws Exception {
+        return Config.authorization.hasPermission(login.getUsername(), permission);
     }
 
     /**
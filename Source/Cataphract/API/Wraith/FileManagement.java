@@ -5,12 +5,23 @@ import java.net.URI;
 import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import Cataphract.API.Config;
 import Cataphract.API.Dragon.Login;
+import Cataphract.API.Minotaur.Permission;
 
 /**
- * Handles file management operations (download, delete, move) for the Cataphract shell.
+ * Handles file management operations (download, delete, move, hash) for the Cataphract shell.
  * Implements IFileOperation to provide a standardized interface for file management commands.
  */
 public class FileManagement implements IFileOperation {
@@ -39,7 +50,7 @@ public class FileManagement implements IFileOperation {
     @Override
     public void execute(String[] commandArray) throws Exception {
         if (commandArray.length < 2) {
-            Config.io.printError("Invalid syntax. Expected: file <download|delete|move|read|help> <args>");
+            Config.io.printError("Invalid syntax. Expected: file <download|delete|move|read|hash|help> <args>");
             return;
         }
 
@@ -50,7 +61,7 @@ public class FileManagement implements IFileOperation {
                     Config.io.printError("Invalid syntax. Expected: file download <url> <filename>");
                     return;
                 }
-                if (!hasPermission("download")) {
+                if (!hasPermission(Permission.DOWNLOAD)) {
                     Config.io.printError("Insufficient privileges to download files.");
                     return;
                 }
@@ -61,7 +72,7 @@ public class FileManagement implements IFileOperation {
                     Config.io.printError("Invalid syntax. Expected: file delete <filename>");
                     return;
                 }
-                if (!hasPermission("delete")) {
+                if (!hasPermission(Permission.FILE_DELETE)) {
                     Config.io.printError("Insufficient privileges to delete files.");
                     return;
                 }
@@ -72,7 +83,7 @@ public class FileManagement implements IFileOperation {
                     Config.io.printError("Invalid syntax. Expected: file move <source> <destination>");
                     return;
                 }
-                if (!hasPermission("move")) {
+                if (!hasPermission(Permission.FILE_MOVE)) {
                     Config.io.printError("Insufficient privileges to move files.");
                     return;
                 }
@@ -85,13 +96,25 @@ public class FileManagement implements IFileOperation {
                     Config.io.printError("Invalid syntax. Expected: file read <filename>");
                     return;
                 }
-                if (!hasPermission("read")) {
+                if (!hasPermission(Permission.FILE_READ)) {
                     Config.io.printError("Insufficient privileges to read files.");
                     return;
                 }
                 readFile(commandArray[2]);
                 break;
 
+            case "hash":
+                if (commandArray.length < 4) {
+                    Config.io.printError("Invalid syntax. Expected: file hash <algorithm[,algorithm...]> <file|directory>");
+                    return;
+                }
+                if (!hasPermission(Permission.FILE_READ)) {
+                    Config.io.printError("Insufficient privileges to read files.");
+                    return;
+                }
+                hashFiles(commandArray[2], resolvePath(commandArray[3]));
+                break;
+
             case "help":
                 readHelp();
                 break;
@@ -174,26 +197,112 @@ public class FileManagement implements IFileOperation {
     }
 
     /**
-     * Logs the file operation with a timestamp.
+     * Hashes a file, or every file of a directory tree, with one or more algorithms. Files are
+     * hashed in parallel, each in a single read pass for all algorithms, and every result is
+     * printed as soon as it is ready, in the BSD checksum format: "SHA-256 (file) = hash".
+     *
+     * @param algorithmList The comma separated algorithm names (e.g. "md5,sha-256,sha3-256").
+     * @param target        The file or directory to hash.
+     * @throws Exception If the hashing fails.
+     */
+    private void hashFiles(String algorithmList, Path target) throws Exception {
+        List<String> algorithms = new ArrayList<>();
+        for (String algorithm : algorithmList.split(",")) {
+            String name = algorithm.trim().toUpperCase();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!Config.cryptography.isSupportedAlgorithm(name)) {
+                Config.io.printError("Unsupported hash algorithm: " + algorithm);
+                return;
+            }
+            algorithms.add(name);
+        }
+        if (algorithms.isEmpty()) {
+            Config.io.printError("No hash algorithm specified.");
+            return;
+        }
+        if (!Files.exists(target)) {
+            Config.io.printError("File does not exist: " + target);
+            return;
+        }
+        Path base = Files.isDirectory(target) ? target : target.toAbsolutePath().getParent();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Wraith-FileHash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<String> results = new ExecutorCompletionService<>(executor);
+        int fileCount = 0;
+        int pending = 0;
+        try (Stream<Path> paths = Files.walk(target)) {
+            Iterator<Path> files = paths.filter(Files::isRegularFile).iterator();
+            while (files.hasNext()) {
+                Path file = files.next();
+                results.submit(() -> formatHashes(file, base, algorithms));
+                fileCount++;
+                pending++;
+                // Print what is done while the tree is still walked, and keep the backlog bounded
+                Future<String> done;
+                while (pending > 0 && (done = pending >= threads * 4 ? results.take() : results.poll()) != null) {
+                    printHashes(done);
+                    pending--;
+                }
+            }
+            for (; pending > 0; pending--) {
+                printHashes(results.take());
+            }
+            logOperation("Hashed " + fileCount + " file(s) with " + String.join(",", algorithms) + ": " + Config.io.convertToNionSeparator(target.toString()));
+        } catch (Exception e) {
+            Config.io.printError("Error hashing files: " + e.getMessage());
+            Config.exceptionHandler.handleException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String formatHashes(Path file, Path base, List<String> algorithms) {
+        Map<String, String> hashes = Config.cryptography.fileToDigests(file.toFile(), algorithms);
+        if (hashes == null) {
+            return null;
+        }
+        String name = base == null ? file.toString() : base.relativize(file.toAbsolutePath()).toString();
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<String, String> hash : hashes.entrySet()) {
+            lines.append(hash.getKey()).append(" (").append(name).append(") = ").append(hash.getValue()).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private void printHashes(Future<String> result) throws Exception {
+        String lines = result.get();
+        // A file that could not be hashed has already been reported
+        if (lines != null) {
+            Config.io.print(lines);
+        }
+    }
+
+    /**
+     * Logs a completed file operation with a timestamp, at {@link LogLevel#INFO}.
      *
      * @param message The operation message to log.
      * @throws Exception If the logging operation fails.
      */
     private void logOperation(String message) throws Exception {
         FileWrite logger = new FileWrite(null);
-        logger.log(message, "FileManagementLog");
+        logger.log(LogLevel.INFO, () -> message, "FileManagementLog");
     }
 
     /**
      * Checks if the user has the specified permission.
      *
-     * @param permission The permission to check (e.g., "Download", "Delete", "Move").
+     * @param permission The permission to check (e.g., DOWNLOAD, FILE_DELETE).
      * @return true if the user has the permission, false otherwise.
-     * @throws Exception If a database error occurs.
+     * @throws Exception If the user's privileges cannot be read.
      */
-    private boolean hasPermission(String permission) throws Exception {
-        String policyValue = Config.policyCheck.retrievePolicyValue(permission);
-        return login.checkPrivilegeLogic() || "true".equalsIgnoreCase(policyValue);
+    private boolean hasPermission(Permission permission) throws Exception {
+        return Config.authorization.hasPermission(login.getUsername(), permission);
     }
 
     /**
@@ -8,6 +8,7 @@ import java.io.FileNotFoundException;
 
 import Cataphract.API.Config;
 import Cataphract.API.Dragon.Login;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * Handles file reading operations for the Cataphract shell.
@@ -54,7 +55,7 @@ public class FileRead {
 
         String fileName = commandArray[1];
 
-        if (!hasPermission("FileRead")) {
+        if (!hasPermission(Permission.FILE_VIEW)) {
             Config.io.printError("Insufficient privileges to read files.");
             return;
         }
@@ -137,13 +138,12 @@ public class FileRead {
     /**
      * Checks if the user has the specified permission.
      *
-     * @param permission The permission to check (e.g., "FileRead").
+     * @param permission The permission to check (e.g., FILE_VIEW).
      * @return true if the user has the permission, false otherwise.
-     * @throws Exception If a database error occurs.
+     * @throws Exception If the user's privileges cannot be read.
      */
-    private boolean hasPermission(String permission) throws Exception {
-        String policyValue = Config.policyCheck.retrievePolicyValue(permission);
-        return login.checkPrivilegeLogic() || "true".equalsIgnoreCase(policyValue);
+    private boolean hasPermission(Permission permission) throws Exception {
+        return Config.authorization.hasPermission(login.getUsername(), permission);
     }
 
     /**
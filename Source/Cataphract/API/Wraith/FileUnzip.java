@@ -6,6 +6,7 @@ import java.util.zip.ZipInputStream;
 
 import Cataphract.API.Config;
 import Cataphract.API.Dragon.Login;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * Handles file unzipping operations for the Cataphract shell.
@@ -41,7 +42,7 @@ public class FileUnzip implements IFileOperation {
         String archive = commandArray[1];
         String destination = commandArray[2];
 
-        if (!hasPermission("FileUnzip")) {
+        if (!hasPermission(Permission.FILE_UNZIP)) {
             Config.io.printError("Insufficient privileges to unzip files.");
             return;
         }
@@ -89,13 +90,12 @@ public class FileUnzip implements IFileOperation {
     /**
      * Checks if the user has the specified permission.
      *
-     * @param permission The permission to check (e.g., "FileUnzip").
+     * @param permission The permission to check (e.g., FILE_UNZIP).
      * @return true if the user has the permission, false otherwise.
-     * @throws Exception If a database error occurs.
+     * @throws Exception If the user's privileges cannot be read.
      */
-    private boolean hasPermission(String permission) throws Exception {
-        String policyValue = Config.policyCheck.retrievePolicyValue(permission);
-        return login.checkPrivilegeLogic() || "true".equalsIgnoreCase(policyValue);
+    private boolean hasPermission(Permission permission) throws Exception {
+        return Config.authorization.hasPermission(login.getUsername(), permission);
     }
 
     /**
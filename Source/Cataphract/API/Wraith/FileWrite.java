@@ -3,14 +3,18 @@ package Cataphract.API.Wraith;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
 
 import Cataphract.API.Config;
 import Cataphract.API.Dragon.Login;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * Handles file writing and logging operations for the Cataphract shell.
  */
 public class FileWrite {
+    private static volatile LevelSetting activeLevel;
+    private static volatile String sessionUser;
     private final Login login;
 
     /**
@@ -38,7 +42,7 @@ public class FileWrite {
         String fileName = commandArray[1];
         String dir = System.getProperty("user.dir");
 
-        if (!hasPermission("FileWrite")) {
+        if (!hasPermission(Permission.FILE_EDIT)) {
             Config.io.printError("Insufficient privileges to write files.");
             return;
         }
@@ -90,7 +94,8 @@ public class FileWrite {
         }
 
         writeFile(filePath, append);
-        log(String.format("User %s edited file: %s", login != null ? login.getNameLogic() : "SYSTEM", Config.io.convertToNionSeparator(filePath.toString())), "FileWriteLog");
+        String editor = login != null ? login.getNameLogic() : "SYSTEM";
+        log(LogLevel.INFO, () -> String.format("User %s edited file: %s", editor, Config.io.convertToNionSeparator(filePath.toString())), "FileWriteLog");
     }
 
     /**
@@ -122,45 +127,92 @@ public class FileWrite {
     }
 
     /**
-     * Logs a message to a file with a timestamp.
+     * Logs a message to a file with a timestamp at {@link LogLevel#INFO}. Errors and warnings
+     * must be logged through {@link #log(LogLevel, Supplier, String)}, or they are dropped
+     * whenever the log level is set above INFO.
+     * The record is handed to the asynchronous {@link LogAppender}; the timestamp is taken at the time of the call.
      *
      * @param printToFile The message to log.
      * @param fileName    The name of the log file (without .log extension).
      * @throws Exception If the logging operation fails.
      */
     public void log(String printToFile, String fileName) throws Exception {
-        try {
-            if (!Config.io.checkFileValidity(fileName)) {
-                Config.io.printError("The provided log file name is invalid. Please provide a valid file name.");
-                return;
-            }
+        if (isLoggable(LogLevel.INFO)) {
+            append(LogLevel.INFO, printToFile, fileName);
+        }
+    }
 
-            Path logPath = Config.pathUtils.getLogPath(fileName, true);
-            String logMessage = String.format("%s (%d): %s%n",
-                    Config.time.getDateTimeUsingSpecifiedFormat("dd-MMMM-yyyy HH:mm:ss"),
-                    Config.time.getUnixEpoch(),
-                    printToFile);
-            Files.writeString(logPath, logMessage, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (Exception e) {
-            Config.io.printError("Error logging to file: " + e.getMessage());
-            Config.exceptionHandler.handleException(e);
+    /**
+     * Logs a lazily built message if the level is enabled. Below the active level the
+     * supplier is never invoked, so the message costs neither concatenation nor I/O.
+     *
+     * @param level    The severity of the message.
+     * @param message  The supplier of the message to log.
+     * @param fileName The name of the log file (without .log extension).
+     * @throws Exception If the logging operation fails.
+     */
+    public void log(LogLevel level, Supplier<String> message, String fileName) throws Exception {
+        if (isLoggable(level)) {
+            append(level, message.get(), fileName);
         }
     }
 
+    /**
+     * Checks whether messages of the given level are currently written.
+     *
+     * @param level The level to check.
+     * @return true if the level is at or above the active level, false otherwise.
+     */
+    public static boolean isLoggable(LogLevel level) {
+        return level.compareTo(activeLevel()) >= 0;
+    }
+
+    /**
+     * Reads the active log level from the "log_level" policy of the current policy snapshot, so
+     * a change of the policy file applies at once. The parsed level is reused for as long as the
+     * snapshot holds the same value. Defaults to INFO when the policy file or the key is not present.
+     */
+    private static LogLevel activeLevel() {
+        String value = Config.policyCheck != null ? Config.policyCheck.peekPolicyValue("log_level") : null;
+        LevelSetting setting = activeLevel;
+        // Compared by identity: a snapshot returns the same instance until it is replaced
+        if (setting == null || setting.value != value) {
+            setting = new LevelSetting(value, LogLevel.parse(value, LogLevel.INFO));
+            activeLevel = setting;
+        }
+        return setting.level;
+    }
+
+    /**
+     * Sets the user that subsequent log records are attributed to, as stored in the binary log format.
+     *
+     * @param username The (hashed) username of the logged in user, or null after logout.
+     */
+    public static void setSessionUser(String username) {
+        sessionUser = username;
+    }
+
+    private void append(LogLevel level, String printToFile, String fileName) {
+        if (!Config.io.checkFileValidity(fileName)) {
+            Config.io.printError("The provided log file name is invalid. Please provide a valid file name.");
+            return;
+        }
+        LogAppender.getInstance().append(fileName, level, sessionUser, printToFile);
+    }
+
     /**
      * Checks if the user has the specified permission.
      *
-     * @param permission The permission to check (e.g., "FileWrite").
+     * @param permission The permission to check (e.g., FILE_EDIT).
      * @return true if the user has the permission, false otherwise.
-     * @throws Exception If a database error occurs.
+     * @throws Exception If the user's privileges cannot be read.
      */
-    private boolean hasPermission(String permission) throws Exception {
-        if (login == null || Config.policyCheck == null) {
+    private boolean hasPermission(Permission permission) throws Exception {
+        if (login == null || Config.authorization == null) {
             Config.io.printError("Cannot check permissions: Authentication components not initialized.");
             return false;
         }
-        String policyValue = Config.policyCheck.retrievePolicyValue(permission);
-        return login.checkPrivilegeLogic() || "true".equalsIgnoreCase(policyValue);
+        return Config.authorization.hasPermission(login.getUsername(), permission);
     }
 
     /**
@@ -173,4 +225,17 @@ public class FileWrite {
     private Path resolvePath(String fileName, String dir) {
         return Path.of(dir, Config.io.convertFileSeparator(fileName));
     }
+
+    /**
+     * A "log_level" policy value and the level parsed from it.
+     */
+    private static final class LevelSetting {
+        final String value;
+        final LogLevel level;
+
+        LevelSetting(String value, LogLevel level) {
+            this.value = value;
+            this.level = level;
+        }
+    }
 }
\ No newline at end of file
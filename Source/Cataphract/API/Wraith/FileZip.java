@@ -2,12 +2,14 @@ package Cataphract.API.Wraith;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import Cataphract.API.Config;
 import Cataphract.API.IOStreams;
-import Cataphract.API.Minotaur.PolicyCheck;
+import Cataphract.API.Minotaur.Authorization;
+import Cataphract.API.Minotaur.Permission;
 import Cataphract.API.Dragon.Login;
 
 /**
@@ -16,19 +18,19 @@ import Cataphract.API.Dragon.Login;
  */
 public class FileZip implements IFileOperation {
     private final Login login;
-    private final PolicyCheck policyCheck;
+    private final Authorization authorization;
     private final IOStreams ioStreams;
 
     /**
      * Constructs a FileZip instance with dependencies.
      *
      * @param login        The login handler for privilege checks.
-     * @param policyCheck  The policy checker for permission validation.
+     * @param authorization The authorization service for permission validation.
      * @param ioStreams    The IO streams handler for path conversion and output.
      */
-    public FileZip(Login login, PolicyCheck policyCheck, IOStreams ioStreams) {
+    public FileZip(Login login, Authorization authorization, IOStreams ioStreams) {
         this.login = login;
-        this.policyCheck = policyCheck;
+        this.authorization = authorization;
         this.ioStreams = ioStreams;
     }
 
@@ -47,7 +49,7 @@ public class FileZip implements IFileOperation {
 
         String archive = commandArray[1];
 
-        if (!hasPermission("FileZip")) {
+        if (!hasPermission(Permission.FILE_ZIP)) {
             ioStreams.printError("Insufficient privileges to zip files.");
             return;
         }
@@ -118,16 +120,33 @@ public class FileZip implements IFileOperation {
         }
     }
 
+    /**
+     * Deflates a single file into a new zip archive. The archive is written to a temporary
+     * file first and moved into place, so a partially written archive is never visible.
+     *
+     * @param source      The file to compress.
+     * @param archivePath The path of the zip archive to create.
+     * @throws Exception If the compression fails.
+     */
+    static void compressFile(Path source, Path archivePath) throws Exception {
+        Path tempPath = archivePath.resolveSibling(archivePath.getFileName() + ".tmp");
+        try (var zipStream = new ZipOutputStream(Files.newOutputStream(tempPath))) {
+            zipStream.putNextEntry(new ZipEntry(source.getFileName().toString()));
+            Files.copy(source, zipStream);
+            zipStream.closeEntry();
+        }
+        Files.move(tempPath, archivePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
     /**
      * Checks if the user has the specified permission.
      *
-     * @param permission The permission to check (e.g., "FileZip").
+     * @param permission The permission to check (e.g., FILE_ZIP).
      * @return true if the user has the permission, false otherwise.
-     * @throws Exception If a database error occurs.
+     * @throws Exception If the user's privileges cannot be read.
      */
-    private boolean hasPermission(String permission) throws Exception {
-        String policyValue = policyCheck.retrievePolicyValue(permission);
-        return login.checkPrivilegeLogic() || "true".equalsIgnoreCase(policyValue);
+    private boolean hasPermission(Permission permission) throws Exception {
+        return authorization.hasPermission(login.getUsername(), permission);
     }
 
     /**
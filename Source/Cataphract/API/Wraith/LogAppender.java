@@ -0,0 +1,578 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Wraith;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import Cataphract.API.Config;
+
+/**
+ * Asynchronous, batched appender behind {@link FileWrite#log(String, String)}.
+ *
+ * Callers only enqueue a record into a bounded lock-free ring buffer. A single writer
+ * thread keeps one channel open per log file, batches the records and flushes them once
+ * a size or time threshold is reached. A shutdown hook drains the buffer so records
+ * logged right before {@code System.exit} are not lost.
+ *
+ * Each log file is written as rolling segments: once the active segment exceeds the size
+ * or age limit it is closed, renamed and compressed in the background by {@link LogRotator}.
+ *
+ * When the "log_format" policy is set to "binary", records are written in the indexed
+ * {@link BinaryLogFormat} instead of text lines, so they can be searched with {@link LogQuery}.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public final class LogAppender {
+    private static final int RING_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 512;
+    private static final int FLUSH_THRESHOLD_BYTES = 64 * 1024;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2000;
+
+    private static final LogAppender INSTANCE = new LogAppender();
+
+    private final LogRingBuffer ringBuffer = new LogRingBuffer(RING_CAPACITY);
+    private final LogRotator rotator = new LogRotator();
+    private final Map<String, LogSink> sinks = new HashMap<>();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private LogAppender() {
+        writerThread = new Thread(this::writerLoop, "Wraith-LogWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Wraith-LogShutdown"));
+    }
+
+    /**
+     * Returns the process-wide appender.
+     *
+     * @return The shared LogAppender instance.
+     */
+    public static LogAppender getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Enqueues a message for the specified log file. Never performs file I/O on the caller's
+     * thread unless the appender is already shutting down.
+     *
+     * @param fileName The name of the log file (without .log extension).
+     * @param message  The message to log.
+     */
+    public void append(String fileName, String message) {
+        append(fileName, LogLevel.INFO, null, message);
+    }
+
+    /**
+     * Enqueues a message with its severity and the user it was logged for.
+     *
+     * @param fileName The name of the log file (without extension).
+     * @param level    The severity of the message.
+     * @param user     The (hashed) username of the session, or null outside of a session.
+     * @param message  The message to log.
+     */
+    public void append(String fileName, LogLevel level, String user, String message) {
+        LogRecord record = new LogRecord(fileName, System.currentTimeMillis(), level, user, message);
+        while (!ringBuffer.offer(record)) {
+            if (!running) {
+                drainAndFlush();
+                continue;
+            }
+            // Ring buffer is full: wake the writer and back off instead of dropping the record
+            LockSupport.unpark(writerThread);
+            Thread.yield();
+        }
+        if (!running) {
+            // The shutdown hook may already have drained the buffer
+            drainAndFlush();
+        }
+    }
+
+    /**
+     * Writes every pending record to disk before returning.
+     */
+    public void flush() {
+        drainAndFlush();
+    }
+
+    private void writerLoop() {
+        while (running) {
+            int drained;
+            synchronized (this) {
+                drained = drainBatch();
+                flushDue(System.nanoTime());
+            }
+            if (drained == 0) {
+                LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    private void shutdown() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainAndFlush();
+        synchronized (this) {
+            for (LogSink sink : sinks.values()) {
+                sink.close();
+            }
+            sinks.clear();
+        }
+    }
+
+    private synchronized void drainAndFlush() {
+        while (drainBatch() > 0) {
+            // Keep draining until the ring buffer is empty
+        }
+        for (LogSink sink : sinks.values()) {
+            sink.flush();
+        }
+    }
+
+    private int drainBatch() {
+        int count = 0;
+        LogRecord record;
+        while (count < BATCH_SIZE && (record = ringBuffer.poll()) != null) {
+            LogSink sink = sinks.computeIfAbsent(record.fileName, name -> new LogSink(name, rotator, isBinaryFormat()));
+            sink.append(record);
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isBinaryFormat() {
+        return Config.policyCheck != null && Config.policyCheck.isPolicyFileAvailable() &&
+               "binary".equalsIgnoreCase(Config.policyCheck.retrievePolicyValue("log_format"));
+    }
+
+    private void flushDue(long now) {
+        for (LogSink sink : sinks.values()) {
+            if (sink.pendingBytes() >= FLUSH_THRESHOLD_BYTES || sink.isStale(now, FLUSH_INTERVAL_NANOS)) {
+                sink.flush();
+            }
+        }
+    }
+}
+
+/**
+ * Growable byte buffer whose content can be written without copying it first.
+ */
+final class LogBuffer extends ByteArrayOutputStream {
+    ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count);
+    }
+}
+
+/**
+ * Bounded multi-producer, multi-consumer ring buffer using per-slot sequence numbers.
+ */
+final class LogRingBuffer {
+    private final AtomicReferenceArray<LogRecord> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final int mask;
+
+    /**
+     * @param capacity The buffer capacity. Must be a power of two.
+     */
+    LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    boolean offer(LogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, record);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    LogRecord poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    LogRecord record = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return record;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+}
+
+/**
+ * An open log file with its pending, not yet flushed, output. Only used by the writer.
+ */
+final class LogSink {
+    private static final String TIMESTAMP_FORMAT = "dd-MMMM-yyyy HH:mm:ss";
+
+    private final String fileName;
+    private final LogRotator rotator;
+    private final boolean binary;
+    private final String extension;
+    private final LogBuffer pending = new LogBuffer();
+    private final StringBuilder line = new StringBuilder();
+    private final List<BinaryLogFormat.Block> pendingBlocks = new ArrayList<>();
+    private BinaryLogFormat.Block openBlock;
+    private FileChannel channel;
+    private FileChannel indexChannel;
+    private Path activePath;
+    private long segmentBytes;
+    private long segmentStartMillis;
+    private long firstPendingNanos;
+
+    LogSink(String fileName, LogRotator rotator, boolean binary) {
+        this.fileName = fileName;
+        this.rotator = rotator;
+        this.binary = binary;
+        this.extension = binary ? BinaryLogFormat.SEGMENT_EXTENSION : ".log";
+    }
+
+    void append(LogRecord record) {
+        if (pending.size() == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        if (binary) {
+            if (openBlock == null) {
+                openBlock = new BinaryLogFormat.Block(pending.size());
+            }
+            openBlock.add(record.epochMillis, BinaryLogFormat.encode(record, pending));
+            if (openBlock.count >= BinaryLogFormat.INDEX_INTERVAL) {
+                pendingBlocks.add(openBlock);
+                openBlock = null;
+            }
+            return;
+        }
+        long epochSecond = Math.floorDiv(record.epochMillis, 1000L);
+        line.setLength(0);
+        // Records arrive in bursts within the same second; Time renders each second only once
+        line.append(Config.time.formatEpochMillis(record.epochMillis, TIMESTAMP_FORMAT))
+            .append(" (").append(epochSecond).append("): ")
+            .append(record.message)
+            .append(System.lineSeparator());
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        pending.write(bytes, 0, bytes.length);
+    }
+
+    int pendingBytes() {
+        return pending.size();
+    }
+
+    boolean isStale(long now, long intervalNanos) {
+        return pending.size() > 0 && now - firstPendingNanos >= intervalNanos;
+    }
+
+    void flush() {
+        if (pending.size() == 0) {
+            return;
+        }
+        try {
+            if (openBlock != null) {
+                pendingBlocks.add(openBlock);
+                openBlock = null;
+            }
+            ByteBuffer buffer = pending.asByteBuffer();
+            if (channel == null) {
+                open();
+            }
+            if (rotator.shouldRotate(segmentBytes, buffer.remaining(), segmentStartMillis)) {
+                close();
+                rotator.rotate(fileName, activePath, extension);
+                open();
+            }
+            long baseOffset = segmentBytes;
+            while (buffer.hasRemaining()) {
+                segmentBytes += channel.write(buffer);
+            }
+            if (binary) {
+                // Index after the data, so an index entry never points past the end of the segment
+                BinaryLogFormat.writeIndexEntries(indexChannel, pendingBlocks, baseOffset);
+            }
+        } catch (Exception e) {
+            Config.io.printError("Error logging to file: " + e.getMessage());
+            close();
+        } finally {
+            pending.reset();
+            pendingBlocks.clear();
+        }
+    }
+
+    void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+            if (indexChannel != null) {
+                indexChannel.close();
+            }
+        } catch (Exception e) {
+            Config.io.printError("Error closing log file " + fileName + ": " + e.getMessage());
+        }
+        channel = null;
+        indexChannel = null;
+    }
+
+    private void open() throws Exception {
+        activePath = Config.pathUtils.getLogPath(fileName, extension, true);
+        if (binary) {
+            openBinary();
+        } else {
+            channel = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentBytes = channel.size();
+        }
+        segmentStartMillis = segmentBytes <= (binary ? BinaryLogFormat.HEADER_BYTES : 0) ? System.currentTimeMillis() : firstRecordMillis();
+    }
+
+    private void openBinary() throws Exception {
+        channel = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(BinaryLogFormat.indexPathFor(activePath), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            indexChannel.truncate(0);
+            BinaryLogFormat.writeSegmentHeader(channel);
+            BinaryLogFormat.writeIndexHeader(indexChannel);
+            segmentBytes = BinaryLogFormat.HEADER_BYTES;
+        } else {
+            segmentBytes = BinaryLogFormat.repair(channel, indexChannel);
+        }
+        channel.position(segmentBytes);
+        indexChannel.position(indexChannel.size());
+    }
+
+    /**
+     * Reads the epoch of the first record in the active segment, so the age limit survives restarts.
+     */
+    private long firstRecordMillis() {
+        try {
+            if (binary) {
+                ByteBuffer head = ByteBuffer.allocate(12);
+                channel.read(head, BinaryLogFormat.HEADER_BYTES);
+                if (!head.hasRemaining()) {
+                    return head.getLong(4);
+                }
+            } else {
+                ByteBuffer head = ByteBuffer.allocate(128);
+                channel.read(head, 0);
+                String firstLine = new String(head.array(), 0, head.position(), StandardCharsets.UTF_8);
+                int start = firstLine.indexOf(" (");
+                int end = firstLine.indexOf("): ", start + 1);
+                if (start >= 0 && end > start) {
+                    return Long.parseLong(firstLine.substring(start + 2, end)) * 1000L;
+                }
+            }
+        } catch (Exception e) {
+            // Unreadable or foreign first record: fall back to the file's own timestamps
+        }
+        try {
+            return Files.readAttributes(activePath, BasicFileAttributes.class).creationTime().toMillis();
+        } catch (Exception e) {
+            return System.currentTimeMillis();
+        }
+    }
+}
+
+/**
+ * Size- and age-based rotation of log segments with background compression and retention.
+ *
+ * Limits are read once from the policy file ("log_max_size" in KiB, "log_max_age" in hours and
+ * "log_retention" as the number of compressed segments to keep), falling back to the defaults.
+ */
+final class LogRotator {
+    private static final long DEFAULT_MAX_SIZE_KIB = 1024;
+    private static final long DEFAULT_MAX_AGE_HOURS = 24;
+    private static final int DEFAULT_RETENTION = 10;
+    private static final DateTimeFormatter SEGMENT_STAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ExecutorService compressor;
+    private long maxBytes = -1;
+    private long maxAgeMillis;
+    private int retention;
+
+    LogRotator() {
+        compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Wraith-LogCompressor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Decides whether the active segment must be closed before more bytes are appended.
+     *
+     * @param segmentBytes       The current size of the active segment.
+     * @param incomingBytes      The number of bytes about to be appended.
+     * @param segmentStartMillis The epoch (milliseconds) of the first record in the segment.
+     * @return true if the segment should be rotated first.
+     */
+    boolean shouldRotate(long segmentBytes, long incomingBytes, long segmentStartMillis) {
+        if (maxBytes < 0) {
+            loadLimits();
+        }
+        return segmentBytes > 0 &&
+               (segmentBytes + incomingBytes > maxBytes || System.currentTimeMillis() - segmentStartMillis >= maxAgeMillis);
+    }
+
+    /**
+     * Renames the closed active segment and schedules its compression. The rename is the only
+     * work done on the writer thread; deflating and pruning run on the compressor thread.
+     *
+     * Binary segments are only pruned, not compressed, so that their index stays seekable.
+     *
+     * @param fileName   The name of the log file (without extension).
+     * @param activePath The path of the active segment, already closed.
+     * @param extension  The extension of the segment, ".log" or ".blog".
+     * @throws Exception If the segment cannot be renamed.
+     */
+    void rotate(String fileName, Path activePath, String extension) throws Exception {
+        String stamp = SEGMENT_STAMP_FORMAT.format(LocalDateTime.now());
+        Path segmentPath = Config.pathUtils.getLogSegmentPath(fileName, extension, stamp);
+        Files.move(activePath, segmentPath);
+        if (BinaryLogFormat.SEGMENT_EXTENSION.equals(extension)) {
+            Path indexPath = BinaryLogFormat.indexPathFor(activePath);
+            if (Files.exists(indexPath)) {
+                Files.move(indexPath, BinaryLogFormat.indexPathFor(segmentPath));
+            }
+            compressor.execute(() -> pruneBinarySegments(fileName));
+        } else {
+            compressor.execute(() -> compressSegments(fileName));
+        }
+    }
+
+    private void compressSegments(String fileName) {
+        try {
+            // Also picks up segments left uncompressed by an earlier shutdown
+            for (Path segment : Config.pathUtils.listLogSegments(fileName, false)) {
+                FileZip.compressFile(segment, Paths.get(segment + ".zip"));
+                Files.delete(segment);
+            }
+            List<Path> archives = Config.pathUtils.listLogSegments(fileName, true);
+            for (int i = 0; i < archives.size() - retention; i++) {
+                Files.deleteIfExists(archives.get(i));
+            }
+        } catch (Exception e) {
+            Config.io.printError("Error compressing log segments for " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private void pruneBinarySegments(String fileName) {
+        try {
+            List<Path> segments = Config.pathUtils.listLogSegments(fileName, BinaryLogFormat.SEGMENT_EXTENSION, false);
+            for (int i = 0; i < segments.size() - retention; i++) {
+                Files.deleteIfExists(segments.get(i));
+                Files.deleteIfExists(BinaryLogFormat.indexPathFor(segments.get(i)));
+            }
+        } catch (Exception e) {
+            Config.io.printError("Error pruning log segments for " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private void loadLimits() {
+        maxBytes = readLimit("log_max_size", DEFAULT_MAX_SIZE_KIB) * 1024L;
+        maxAgeMillis = TimeUnit.HOURS.toMillis(readLimit("log_max_age", DEFAULT_MAX_AGE_HOURS));
+        retention = (int) readLimit("log_retention", DEFAULT_RETENTION);
+    }
+
+    private long readLimit(String policyName, long defaultValue) {
+        try {
+            if (!Config.policyCheck.isPolicyFileAvailable()) {
+                return defaultValue;
+            }
+            long value = Long.parseLong(Config.policyCheck.retrievePolicyValue(policyName).trim());
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
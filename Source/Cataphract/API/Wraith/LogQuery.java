@@ -0,0 +1,221 @@
+/*
+*                                                      |
+*                                                     ||
+*  |||||| ||||||||| |||||||| ||||||||| |||||||  |||  ||| ||||||| |||||||||  |||||| |||||||||
+* |||            ||    |||          ||       || |||  |||       ||       || |||        |||
+* |||      ||||||||    |||    ||||||||  ||||||  ||||||||  ||||||  |||||||| |||        |||
+* |||      |||  |||    |||    |||  |||  |||     |||  |||  ||  ||  |||  ||| |||        |||
+*  ||||||  |||  |||    |||    |||  |||  |||     |||  |||  ||   || |||  |||  ||||||    |||
+*                                               ||
+*                                               |
+*
+* A Cross Platform OS Shell
+* Powered By Truncheon Core
+*/
+
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+
+package Cataphract.API.Wraith;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import Cataphract.API.Config;
+
+/**
+ * Searches binary log segments by time range, user, source and minimum level.
+ *
+ * Each segment is narrowed down through its sparse time index: only the blocks overlapping the
+ * requested time range are read and decoded, the rest of the segment is never touched.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public final class LogQuery {
+    private static final Pattern BINARY_LOG_PATTERN = Pattern.compile("(.+?)(-\\d{8}-\\d{6}(-\\d+)?)?" + Pattern.quote(BinaryLogFormat.SEGMENT_EXTENSION));
+
+    private final long fromMillis;
+    private final long toMillis;
+    private final String source;
+    private final String user;
+    private final LogLevel minimumLevel;
+
+    /**
+     * Creates a query. Every filter except the time range is optional.
+     *
+     * @param fromMillis   The start of the time range (inclusive), in epoch milliseconds.
+     * @param toMillis     The end of the time range (inclusive), in epoch milliseconds.
+     * @param source       The log file to search (e.g. "ShellLog"), or null for all binary logs.
+     * @param user         The (hashed) username to match, or null for all users.
+     * @param minimumLevel The lowest level to match, or null for all levels.
+     */
+    public LogQuery(long fromMillis, long toMillis, String source, String user, LogLevel minimumLevel) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.source = source;
+        this.user = user;
+        this.minimumLevel = minimumLevel == null ? LogLevel.TRACE : minimumLevel;
+    }
+
+    /**
+     * Runs the query, handing every match to the consumer in the order it was logged per source.
+     *
+     * @param consumer Receives the matching entries.
+     * @return The number of matching entries.
+     * @throws Exception If the log directory or a segment cannot be read.
+     */
+    public int run(Consumer<Entry> consumer) throws Exception {
+        // Make records still waiting in the appender visible to the query
+        LogAppender.getInstance().flush();
+        int matches = 0;
+        for (String logName : source == null ? listSources() : Set.of(source)) {
+            for (Path segment : Config.pathUtils.listLogSegments(logName, BinaryLogFormat.SEGMENT_EXTENSION, false)) {
+                matches += searchSegment(segment, consumer);
+            }
+            Path activePath = Config.pathUtils.getLogPath(logName, BinaryLogFormat.SEGMENT_EXTENSION, false);
+            if (Files.exists(activePath)) {
+                matches += searchSegment(activePath, consumer);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Lists the names of all logs that have binary segments.
+     *
+     * @return The log names, sorted alphabetically.
+     * @throws Exception If the log directory cannot be listed.
+     */
+    public static Set<String> listSources() throws Exception {
+        Set<String> sources = new TreeSet<>();
+        Path logDir = Config.pathUtils.getLogDirectory(false);
+        if (!Files.isDirectory(logDir)) {
+            return sources;
+        }
+        try (Stream<Path> files = Files.list(logDir)) {
+            files.forEach(path -> {
+                Matcher matcher = BINARY_LOG_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    sources.add(matcher.group(1));
+                }
+            });
+        }
+        return sources;
+    }
+
+    private int searchSegment(Path segmentPath, Consumer<Entry> consumer) throws IOException {
+        List<BinaryLogFormat.Block> blocks = BinaryLogFormat.readIndex(BinaryLogFormat.indexPathFor(segmentPath));
+        int[] matches = {0};
+        BinaryLogFormat.RecordVisitor visitor = (offset, body) -> {
+            long epochMillis = BinaryLogFormat.epochOf(body);
+            if (epochMillis < fromMillis || epochMillis > toMillis) {
+                return;
+            }
+            Entry entry = BinaryLogFormat.decode(body);
+            if (matches(entry)) {
+                consumer.accept(entry);
+                matches[0]++;
+            }
+        };
+        try (FileChannel channel = FileChannel.open(segmentPath)) {
+            long indexedEnd = BinaryLogFormat.HEADER_BYTES;
+            long rangeStart = -1;
+            long rangeEnd = -1;
+            for (BinaryLogFormat.Block block : blocks) {
+                indexedEnd = block.end();
+                if (!block.overlaps(fromMillis, toMillis)) {
+                    continue;
+                }
+                // Adjacent matching blocks are read in one pass
+                if (block.offset != rangeEnd) {
+                    if (rangeStart >= 0) {
+                        BinaryLogFormat.scan(channel, rangeStart, rangeEnd, visitor);
+                    }
+                    rangeStart = block.offset;
+                }
+                rangeEnd = block.end();
+            }
+            if (rangeStart >= 0) {
+                BinaryLogFormat.scan(channel, rangeStart, rangeEnd, visitor);
+            }
+            // Records written after the last index entry (or without an index at all) are scanned
+            BinaryLogFormat.scan(channel, indexedEnd, channel.size(), visitor);
+        }
+        return matches[0];
+    }
+
+    private boolean matches(Entry entry) {
+        return entry.level.compareTo(minimumLevel) >= 0 &&
+               (user == null || user.equals(entry.user)) &&
+               (source == null || source.equals(entry.source));
+    }
+
+    /**
+     * A decoded binary log record.
+     */
+    public static final class Entry {
+        private final long epochMillis;
+        private final LogLevel level;
+        private final String source;
+        private final String user;
+        private final String message;
+
+        Entry(long epochMillis, LogLevel level, String source, String user, String message) {
+            this.epochMillis = epochMillis;
+            this.level = level;
+            this.source = source;
+            this.user = user;
+            this.message = message;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        public LogLevel getLevel() {
+            return level;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return The (hashed) username the record was logged for, or an empty string outside of a session.
+         */
+        public String getUser() {
+            return user;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -37,6 +37,13 @@ package Cataphract.API.Wraith;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import Cataphract.API.Config;
 
@@ -80,6 +87,30 @@ public class PathUtils {
     }
 
     public Path getLogPath(String logFileName, boolean createIfAbsent) throws Exception {
+        return getLogPath(logFileName, ".log", createIfAbsent);
+    }
+
+    /**
+     * Resolves the path of an active log file with the given extension.
+     *
+     * @param logFileName    The name of the log file (without extension).
+     * @param extension      The extension of the log file, e.g. ".log" or ".blog".
+     * @param createIfAbsent true to create the log directory if it does not exist.
+     * @return The path of the active log file.
+     * @throws Exception If the log directory cannot be created.
+     */
+    public Path getLogPath(String logFileName, String extension, boolean createIfAbsent) throws Exception {
+        return getLogDirectory(createIfAbsent).resolve(logFileName + extension);
+    }
+
+    /**
+     * Resolves the directory holding the log files.
+     *
+     * @param createIfAbsent true to create the fallback log directory if it does not exist.
+     * @return The log directory.
+     * @throws Exception If the log directory cannot be created.
+     */
+    public Path getLogDirectory(boolean createIfAbsent) throws Exception {
         Path logDir = Paths.get(Config.io.convertFileSeparator(".|System|Cataphract|Public|Logs|"));
         if (!Files.exists(logDir)) {
             logDir = Paths.get(Config.io.convertFileSeparator(".|Logs|Cataphract|"));
@@ -87,6 +118,73 @@ public class PathUtils {
                 Files.createDirectories(logDir);
             }
         }
-        return logDir.resolve(logFileName + ".log");
+        return logDir;
+    }
+
+    /**
+     * Resolves the path of a closed (rotated) log segment.
+     *
+     * @param logFileName  The name of the log file (without .log extension).
+     * @param segmentStamp The timestamp identifying the segment, in yyyyMMdd-HHmmss format.
+     * @return The path of the rotated segment, next to the active log file.
+     * @throws Exception If the log directory cannot be resolved.
+     */
+    public Path getLogSegmentPath(String logFileName, String segmentStamp) throws Exception {
+        return getLogSegmentPath(logFileName, ".log", segmentStamp);
+    }
+
+    /**
+     * Resolves the path of a closed (rotated) log segment with the given extension.
+     *
+     * @param logFileName  The name of the log file (without extension).
+     * @param extension    The extension of the log file, e.g. ".log" or ".blog".
+     * @param segmentStamp The timestamp identifying the segment, in yyyyMMdd-HHmmss format.
+     * @return The path of the rotated segment, next to the active log file.
+     * @throws Exception If the log directory cannot be resolved.
+     */
+    public Path getLogSegmentPath(String logFileName, String extension, String segmentStamp) throws Exception {
+        Path segmentPath = getLogPath(logFileName, extension, true).resolveSibling(logFileName + "-" + segmentStamp + extension);
+        for (int i = 1; Files.exists(segmentPath) || Files.exists(Paths.get(segmentPath + ".zip")); i++) {
+            segmentPath = segmentPath.resolveSibling(logFileName + "-" + segmentStamp + "-" + i + extension);
+        }
+        return segmentPath;
+    }
+
+    /**
+     * Lists the rotated segments of a log file, oldest first.
+     *
+     * @param logFileName The name of the log file (without .log extension).
+     * @param compressed  true to list compressed (.zip) segments, false for uncompressed ones.
+     * @return The matching segment paths, sorted from oldest to newest.
+     * @throws Exception If the log directory cannot be listed.
+     */
+    public List<Path> listLogSegments(String logFileName, boolean compressed) throws Exception {
+        return listLogSegments(logFileName, ".log", compressed);
+    }
+
+    /**
+     * Lists the rotated segments of a log file with the given extension, oldest first.
+     *
+     * @param logFileName The name of the log file (without extension).
+     * @param extension   The extension of the log file, e.g. ".log" or ".blog".
+     * @param compressed  true to list compressed (.zip) segments, false for uncompressed ones.
+     * @return The matching segment paths, sorted from oldest to newest.
+     * @throws Exception If the log directory cannot be listed.
+     */
+    public List<Path> listLogSegments(String logFileName, String extension, boolean compressed) throws Exception {
+        Pattern segmentPattern = Pattern.compile(Pattern.quote(logFileName) + "-(\\d{8}-\\d{6})(?:-(\\d+))?" + Pattern.quote(extension) + (compressed ? "\\.zip" : ""));
+        Path logDir = getLogDirectory(false);
+        if (!Files.isDirectory(logDir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(logDir)) {
+            // Segments rotated within the same second carry a -N suffix and sort after the unsuffixed one
+            return files.map(path -> segmentPattern.matcher(path.getFileName().toString()))
+                        .filter(Matcher::matches)
+                        .sorted(Comparator.comparing((Matcher matcher) -> matcher.group(1))
+                                          .thenComparingInt(matcher -> matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2))))
+                        .map(matcher -> logDir.resolve(matcher.group()))
+                        .collect(Collectors.toCollection(ArrayList::new));
+        }
     }
 }
\ No newline at end of file
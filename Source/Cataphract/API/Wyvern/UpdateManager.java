@@ -19,12 +19,14 @@ package Cataphract.API.Wyvern;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.function.Supplier;
 
 import Cataphract.API.Config;
 import Cataphract.API.Wraith.FileDownload;
 import Cataphract.API.Wraith.FileUnzip;
 import Cataphract.API.Wraith.FileWrite;
-import Cataphract.API.Dragon.Login;
+import Cataphract.API.Wraith.LogLevel;
+import Cataphract.API.Minotaur.Permission;
 
 /**
  * Manages the Cataphract update process by orchestrating download and installation steps.
@@ -38,14 +40,12 @@ public class UpdateManager {
     protected static final String UPDATE_FILE_NAME = "Cataphract.zip";
 
     private final String username;
-    private final boolean isUserAdmin;
     private final FileDownload fileDownload;
     private final FileUnzip fileUnzip;
     private final FileWrite fileWrite;
 
     public UpdateManager(String username, FileDownload fileDownload, FileUnzip fileUnzip, FileWrite fileWrite) throws Exception {
         this.username = username == null || username.isEmpty() ? "DEFAULT_USER" : username;
-        this.isUserAdmin = new Login(username).checkPrivilegeLogic();
         this.fileDownload = fileDownload;
         this.fileUnzip = fileUnzip;
         this.fileWrite = fileWrite;
@@ -59,19 +59,19 @@ public class UpdateManager {
     public void performUpdate() throws Exception {
         if (!hasUpdatePermission()) {
             Config.io.printError("Policy Management System - Permission Denied.");
-            logOperation("Update failed: Insufficient permissions for user " + username);
+            logOperation(LogLevel.WARN, () -> "Update failed: Insufficient permissions for user " + username);
             return;
         }
 
         displayUpdateHeader();
-        logOperation("Starting Cataphract update process for user: " + username);
+        logOperation(LogLevel.INFO, () -> "Starting Cataphract update process for user: " + username);
 
         UpdateDownloader downloader = new UpdateDownloader(fileDownload, fileWrite);
         UpdateInstaller installer = new UpdateInstaller(fileUnzip, fileWrite);
 
         executeUpdatePipeline(downloader, installer);
         Config.io.printAttention("It is recommended to restart Cataphract for the updates to be reflected.");
-        logOperation("Update process completed successfully for user: " + username);
+        logOperation(LogLevel.INFO, () -> "Update process completed successfully for user: " + username);
     }
 
     /**
@@ -81,7 +81,7 @@ public class UpdateManager {
      * @throws Exception If a database error occurs during policy check.
      */
     private boolean hasUpdatePermission() throws Exception {
-        return isUserAdmin || "on".equalsIgnoreCase(Config.policyCheck.retrievePolicyValue("update"));
+        return Config.authorization.hasPermission(username, Permission.UPDATE);
     }
 
     /**
@@ -110,11 +110,12 @@ public class UpdateManager {
     /**
      * Logs an update operation with a timestamp.
      *
-     * @param message The message to log.
+     * @param level   The severity of the message.
+     * @param message The supplier of the message to log.
      * @throws Exception If logging fails.
      */
-    private void logOperation(String message) throws Exception {
-        fileWrite.log(String.format("User %s: %s", username, message), LOG_FILE_NAME);
+    private void logOperation(LogLevel level, Supplier<String> message) throws Exception {
+        fileWrite.log(level, () -> String.format("User %s: %s", username, message.get()), LOG_FILE_NAME);
     }
 }
 
@@ -142,9 +143,9 @@ class UpdateDownloader implements IUpdateOperation {
         try {
             Config.io.println("Downloading update...");
             fileDownload.execute(new String[]{"download", Config.UPDATE_URL, UpdateManager.UPDATE_FILE_NAME});
-            fileWrite.log("Download status: Complete", UpdateManager.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.INFO, () -> "Download status: Complete", UpdateManager.LOG_FILE_NAME);
         } catch (Exception e) {
-            fileWrite.log("Download failed: " + e.getMessage(), UpdateManager.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Download failed: " + e.getMessage(), UpdateManager.LOG_FILE_NAME);
             throw new Exception("Update download failed: " + e.getMessage(), e);
         }
     }
@@ -169,9 +170,9 @@ class UpdateInstaller implements IUpdateOperation {
             Path archivePath = Paths.get(System.getProperty("user.dir"), UpdateManager.UPDATE_FILE_NAME);
             Path destinationPath = Paths.get(Config.SYSTEM_PATH);
             fileUnzip.execute(new String[]{"unzip", archivePath.toString(), destinationPath.toString()});
-            fileWrite.log("Installation completed successfully", UpdateManager.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.INFO, () -> "Installation completed successfully", UpdateManager.LOG_FILE_NAME);
         } catch (Exception e) {
-            fileWrite.log("Installation failed: " + e.getMessage(), UpdateManager.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Installation failed: " + e.getMessage(), UpdateManager.LOG_FILE_NAME);
             throw new Exception("Update installation failed: " + e.getMessage(), e);
         }
     }
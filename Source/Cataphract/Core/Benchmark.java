@@ -0,0 +1,381 @@
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is distributed under the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package Cataphract.Core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import Cataphract.API.Config;
+import Cataphract.API.Dragon.DatabaseInitializer;
+import Cataphract.API.Dragon.DatabaseManager;
+import Cataphract.API.Dragon.Login;
+import Cataphract.API.Dragon.UserRecordCache;
+import Cataphract.API.Minotaur.PolicyCheck;
+
+/**
+ * Small in-tree microbenchmark harness, run with {@code debug benchmark <suite>}.
+ *
+ * Each case is warmed up first so the JIT has compiled it, then measured over several timed
+ * rounds. Results are folded into a sink so the JIT cannot eliminate the measured work.
+ * Every suite compares the current implementation against the path it replaced.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class Benchmark {
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int ROUNDS = 5;
+    // Largest file hashed by the filehash suite; 1 GiB only when the suite is asked for by name
+    private static final long DEFAULT_MAX_FILE_SIZE = 256L << 20;
+    private static final long EXPLICIT_MAX_FILE_SIZE = 1L << 30;
+
+    private static volatile int sink;
+
+    /**
+     * A single measured operation. The returned value is consumed by the harness.
+     */
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    private final Map<String, Runnable> suites = new LinkedHashMap<>();
+
+    Benchmark() {
+        suites.put("astaroth", this::astarothSuite);
+        suites.put("minotaur", this::minotaurSuite);
+        suites.put("cryptography", this::cryptographySuite);
+        suites.put("filehash", () -> fileHashSuite(DEFAULT_MAX_FILE_SIZE));
+        suites.put("database", this::databaseSuite);
+    }
+
+    /**
+     * Runs the named suite, or every suite for "all". The filehash suite hashes a 1 GiB file
+     * only when it is run by name.
+     *
+     * @param suite The suite name.
+     * @return false if the suite does not exist.
+     */
+    boolean run(String suite) {
+        if ("all".equalsIgnoreCase(suite)) {
+            suites.values().forEach(Runnable::run);
+            return true;
+        }
+        if ("filehash".equalsIgnoreCase(suite)) {
+            fileHashSuite(EXPLICIT_MAX_FILE_SIZE);
+            return true;
+        }
+        Runnable benchmark = suite == null ? null : suites.get(suite.toLowerCase());
+        if (benchmark == null) {
+            Config.io.printError("Unknown benchmark suite. Available suites: all, " + String.join(", ", suites.keySet()));
+            return false;
+        }
+        benchmark.run();
+        return true;
+    }
+
+    private void astarothSuite() {
+        String pattern = "dd-MMMM-yyyy HH:mm:ss";
+        long[] epochMillis = {System.currentTimeMillis()};
+        Config.io.printInfo("Astaroth: formatting \"" + pattern + "\"");
+        measure("ofPattern + LocalDateTime.now (previous)", () -> DateTimeFormatter.ofPattern(pattern).format(LocalDateTime.now()));
+        measure("Time.getDateTimeUsingSpecifiedFormat", () -> Config.time.getDateTimeUsingSpecifiedFormat(pattern));
+        // A new second on every call: the cost of a cache miss with a cached formatter
+        measure("Time.formatEpochMillis, new second", () -> Config.time.formatEpochMillis(epochMillis[0] += 1000, pattern));
+    }
+
+    private void minotaurSuite() {
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("minotaur-benchmark");
+            Properties defaults = new Properties();
+            for (int i = 0; i < 24; i++) {
+                defaults.setProperty("policy_" + i, i % 2 == 0 ? "on" : "off");
+            }
+            defaults.setProperty("sysname", "Cataphract");
+            String xmlPath = workDir.resolve("Policy.xml").toString();
+            String binaryPath = workDir.resolve("Policy.burn").toString();
+            try (OutputStream xml = Files.newOutputStream(Paths.get(xmlPath));
+                 OutputStream binary = Files.newOutputStream(Paths.get(binaryPath))) {
+                defaults.storeToXML(xml, "CataphractSettings");
+                defaults.storeToXML(binary, "CataphractSettings");
+            }
+            PolicyCheck xmlCheck = new PolicyCheck(xmlPath, false);
+            // The first read converts the XML copy to the binary format
+            PolicyCheck binaryCheck = new PolicyCheck(binaryPath, true);
+            binaryCheck.retrievePolicyValue("sysname");
+
+            Config.io.printInfo("Minotaur: " + defaults.size() + " policies, XML " + Files.size(Paths.get(xmlPath)) + " bytes, binary " + Files.size(Paths.get(binaryPath)) + " bytes");
+            measure("XML load + lookup", () -> {
+                xmlCheck.invalidate();
+                return xmlCheck.retrievePolicyValue("sysname");
+            });
+            measure("Binary load + lookup", () -> {
+                binaryCheck.invalidate();
+                return binaryCheck.retrievePolicyValue("sysname");
+            });
+            measure("Cached lookup", () -> binaryCheck.retrievePolicyValue("sysname"));
+        } catch (Exception e) {
+            Config.io.printError("Minotaur benchmark failed: " + e.getMessage());
+        } finally {
+            if (workDir != null) {
+                try (Stream<Path> files = Files.list(workDir)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(workDir);
+                } catch (Exception e) {
+                    // Leftovers in the temp directory are harmless
+                }
+            }
+        }
+    }
+
+    private void cryptographySuite() {
+        String input = "a-typical-username";
+        Config.io.printInfo("Cryptography: SHA3-256 of \"" + input + "\"");
+        measure("getInstance + Integer.toString hex (previous)", () -> previousHash(input.getBytes(StandardCharsets.UTF_8)));
+        measure("Cryptography.stringToSHA3_256", () -> Config.cryptography.stringToSHA3_256(input));
+
+        File file = null;
+        try {
+            file = File.createTempFile("cryptography-benchmark", ".bin");
+            byte[] content = new byte[64 * 1024];
+            new Random(42).nextBytes(content);
+            Files.write(file.toPath(), content);
+            File hashedFile = file;
+            Config.io.printInfo("Cryptography: SHA3-256 of a " + content.length / 1024 + " KiB file");
+            measure("1 KiB stream + getInstance (previous)", () -> previousHashFile(hashedFile, "SHA3-256"));
+            measure("Cryptography.fileToSHA3_256", () -> Config.cryptography.fileToSHA3_256(hashedFile));
+        } catch (Exception e) {
+            Config.io.printError("Cryptography benchmark failed: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    private void fileHashSuite(long maxFileSize) {
+        long[] sizes = {1L << 10, 64L << 10, 1L << 20, 16L << 20, 256L << 20, 1L << 30};
+        File tempDirectory = new File(System.getProperty("java.io.tmpdir"));
+        for (long size : sizes) {
+            if (size > maxFileSize) {
+                break;
+            }
+            // Leave at least half of the free space to everything else on the temporary file system
+            if (size > tempDirectory.getUsableSpace() / 2) {
+                Config.io.printWarning("File hashing: skipping the " + (size >> 20) + " MiB file, not enough free space in " + tempDirectory);
+                break;
+            }
+            File file = null;
+            try {
+                file = createRandomFile(size);
+                File hashedFile = file;
+                String label = size >= (1L << 20) ? (size >> 20) + " MiB" : (size >> 10) + " KiB";
+                Config.io.printInfo("File hashing: " + label + " file");
+                if (size <= (1L << 20)) {
+                    measure("SHA-256, 1 KiB stream (previous)", () -> previousHashFile(hashedFile, "SHA-256"));
+                    measure("Cryptography.fileToSHA_256", () -> Config.cryptography.fileToSHA_256(hashedFile));
+                    measure("SHA3-256, 1 KiB stream (previous)", () -> previousHashFile(hashedFile, "SHA3-256"));
+                    measure("Cryptography.fileToSHA3_256", () -> Config.cryptography.fileToSHA3_256(hashedFile));
+                } else {
+                    int runs = size >= (256L << 20) ? 2 : 5;
+                    measureRuns("SHA-256, 1 KiB stream (previous)", size, runs, () -> previousHashFile(hashedFile, "SHA-256"));
+                    measureRuns("Cryptography.fileToSHA_256", size, runs, () -> Config.cryptography.fileToSHA_256(hashedFile));
+                    measureRuns("SHA3-256, 1 KiB stream (previous)", size, runs, () -> previousHashFile(hashedFile, "SHA3-256"));
+                    measureRuns("Cryptography.fileToSHA3_256", size, runs, () -> Config.cryptography.fileToSHA3_256(hashedFile));
+                }
+            } catch (Exception e) {
+                Config.io.printError("File hashing benchmark failed: " + e.getMessage());
+            } finally {
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private void databaseSuite() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            Config.io.printWarning("Database: skipped, the SQLite JDBC driver is not on the class path");
+            return;
+        }
+        if (!new File(Config.DB_PATH).exists()) {
+            Config.io.printWarning("Database: skipped, run setup first to create the user database");
+            return;
+        }
+        // A read of an absent user leaves the database unchanged
+        String sql = "SELECT Name FROM MUD WHERE Username = ?";
+        String username = Config.cryptography.stringToSHA3_256("benchmark-user");
+        Config.io.printInfo("Database: single value lookup");
+        measure("open + prepare + close per query (previous)", () -> {
+            try (Connection connection = DriverManager.getConnection(DatabaseInitializer.getDatabasePath());
+                 PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setObject(1, username);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        });
+        measure("DatabaseManager.retrieveSingleValue (pooled)", () -> DatabaseManager.retrieveSingleValue(sql, "Name", username));
+
+        String administrator = Config.cryptography.stringToSHA3_256("Administrator");
+        if (administratorExists(administrator)) {
+            Config.io.printInfo("Database: account record lookup");
+            measure("record read from the database", () -> {
+                UserRecordCache.invalidate(administrator);
+                return new Login(administrator).loadUserAccount();
+            });
+            measure("record read from UserRecordCache", () -> new Login(administrator).loadUserAccount());
+            Config.io.println("Cache hits: " + UserRecordCache.hits() + ", misses: " + UserRecordCache.misses());
+        }
+    }
+
+    private static boolean administratorExists(String administrator) {
+        try {
+            return new Login(administrator).checkUserExistence();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static File createRandomFile(long size) throws Exception {
+        File file = File.createTempFile("filehash-benchmark", ".bin");
+        byte[] block = new byte[1 << 20];
+        new Random(42).nextBytes(block);
+        try (OutputStream output = Files.newOutputStream(file.toPath())) {
+            for (long written = 0; written < size; written += block.length) {
+                output.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+        return file;
+    }
+
+    private static String previousHash(byte[] input) throws Exception {
+        return previousHex(MessageDigest.getInstance("SHA3-256").digest(input));
+    }
+
+    private static String previousHashFile(File file, String algorithm) throws Exception {
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance(algorithm);
+            byte[] buffer = new byte[1024];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+            }
+            return previousHex(digest.digest());
+        }
+    }
+
+    private static String previousHex(byte[] bytes) {
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : bytes) {
+            hexString.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+        }
+        return hexString.toString();
+    }
+
+    /**
+     * Measures an operation and prints the mean and best time per call.
+     *
+     * @param name      The case name.
+     * @param operation The operation to measure.
+     */
+    static void measure(String name, Operation operation) {
+        try {
+            runFor(operation, WARMUP_NANOS);
+            double best = Double.MAX_VALUE;
+            double total = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                double nanosPerOp = runFor(operation, ROUND_NANOS);
+                best = Math.min(best, nanosPerOp);
+                total += nanosPerOp;
+            }
+            Config.io.println(String.format("  %-48s %12.1f ns/op (best %.1f)", name, total / ROUNDS, best));
+        } catch (Exception e) {
+            Config.io.printError("  " + name + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Measures an operation too slow for timed rounds: one warmup call, then a fixed number of
+     * calls, each timed on its own. Prints the mean and best time per call and the throughput.
+     *
+     * @param name      The case name.
+     * @param bytes     The bytes processed per call.
+     * @param runs      The number of timed calls.
+     * @param operation The operation to measure.
+     */
+    static void measureRuns(String name, long bytes, int runs, Operation operation) {
+        try {
+            sink += System.identityHashCode(operation.run());
+            long best = Long.MAX_VALUE;
+            long total = 0;
+            for (int run = 0; run < runs; run++) {
+                long start = System.nanoTime();
+                sink += System.identityHashCode(operation.run());
+                long elapsed = System.nanoTime() - start;
+                best = Math.min(best, elapsed);
+                total += elapsed;
+            }
+            double meanMillis = total / (runs * 1e6);
+            Config.io.println(String.format("  %-48s %12.1f ms/op (best %.1f, %.0f MiB/s)", name, meanMillis, best / 1e6, bytes / 1048576.0 / (best / 1e9)));
+        } catch (Exception e) {
+            Config.io.printError("  " + name + " failed: " + e.getMessage());
+        }
+    }
+
+    private static double runFor(Operation operation, long durationNanos) throws Exception {
+        long operations = 0;
+        int accumulator = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            // Check the clock in batches so it does not dominate cheap operations
+            for (int i = 0; i < 64; i++) {
+                accumulator += System.identityHashCode(operation.run());
+            }
+            operations += 64;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < durationNanos);
+        sink += accumulator;
+        return (double) elapsed / operations;
+    }
+}
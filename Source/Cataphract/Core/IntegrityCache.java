@@ -0,0 +1,241 @@
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is distributed under the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package Cataphract.Core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import Cataphract.API.Config;
+
+/**
+ * Persisted record of the kernel files verified on previous boots.
+ *
+ * Each entry maps a file to a stamp of its metadata (size, modification time, file key and,
+ * where available, the inode change time) and the hash it was verified with. A file whose stamp
+ * is unchanged is not hashed again. The cache is bound to the manifest it was verified against
+ * and sealed with an HMAC, whose key is kept in a separate file; a cache that fails either check
+ * is discarded and every file is hashed.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class IntegrityCache {
+    static final int DEFAULT_FULL_CHECK_INTERVAL = 10;
+
+    private static final int MAGIC = 0x43494348; // "CICH"
+    private static final int VERSION = 1;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_BYTES = 32;
+
+    private final Path cachePath;
+    private final Path keyPath;
+    private final byte[] manifestDigest;
+    private final Map<String, String[]> previous;
+    private final Map<String, String[]> verified = new ConcurrentHashMap<>();
+    private final int bootsSinceFullCheck;
+    private final boolean fullCheck;
+
+    private IntegrityCache(Path cachePath, Path keyPath, byte[] manifestDigest, Map<String, String[]> previous, int bootsSinceFullCheck, boolean fullCheck) {
+        this.cachePath = cachePath;
+        this.keyPath = keyPath;
+        this.manifestDigest = manifestDigest;
+        this.previous = previous;
+        this.bootsSinceFullCheck = bootsSinceFullCheck;
+        this.fullCheck = fullCheck;
+    }
+
+    /**
+     * Loads the cache for the given manifest.
+     *
+     * @param manifestContent   The content of the hash manifest.
+     * @param fullCheckInterval Every how many boots all files are hashed; 1 or less disables the cache.
+     */
+    static IntegrityCache load(byte[] manifestContent, int fullCheckInterval) throws Exception {
+        Path privateDir = Paths.get(Config.io.convertFileSeparator(".|System|Cataphract|Private"));
+        Path cachePath = privateDir.resolve("IntegrityCache.burn");
+        Path keyPath = privateDir.resolve("IntegrityCache.key");
+        byte[] manifestDigest = MessageDigest.getInstance("SHA3-256").digest(manifestContent);
+        Map<String, String[]> previous = new HashMap<>();
+        int boots = 0;
+        try {
+            if (Files.exists(cachePath) && Files.exists(keyPath)) {
+                boots = read(Files.readAllBytes(cachePath), Files.readAllBytes(keyPath), manifestDigest, previous);
+            }
+        } catch (Exception e) {
+            // A damaged or foreign cache is as good as none
+            previous.clear();
+        }
+        boolean fullCheck = previous.isEmpty() || boots + 1 >= fullCheckInterval;
+        if (fullCheck) {
+            previous.clear();
+        }
+        return new IntegrityCache(cachePath, keyPath, manifestDigest, previous, fullCheck ? 0 : boots + 1, fullCheck);
+    }
+
+    boolean isFullCheck() {
+        return fullCheck;
+    }
+
+    /**
+     * Checks whether the file was verified with the expected hash and has not changed since.
+     * A verified file is carried over to the saved cache.
+     */
+    boolean isVerified(String fileName, String expectedHash) throws IOException {
+        String[] entry = previous.get(fileName);
+        if (entry == null || !entry[1].equals(expectedHash) || !entry[0].equals(stampOf(Paths.get(fileName)))) {
+            return false;
+        }
+        verified.put(fileName, entry);
+        return true;
+    }
+
+    void recordVerified(String fileName, String stamp, String hash) {
+        verified.put(fileName, new String[] {stamp, hash});
+    }
+
+    /**
+     * Writes the verified files of this boot, sealed, in one atomic replace of the cache file.
+     * Nothing is written before setup has created the private system directory.
+     */
+    void save(Set<String> kernelFiles) throws Exception {
+        if (!Files.isDirectory(cachePath.getParent())) {
+            return;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(content);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(manifestDigest.length);
+        data.write(manifestDigest);
+        data.writeInt(bootsSinceFullCheck);
+        Map<String, String[]> entries = new TreeMap<>(verified);
+        entries.keySet().retainAll(kernelFiles);
+        data.writeInt(entries.size());
+        for (Map.Entry<String, String[]> entry : entries.entrySet()) {
+            data.writeUTF(entry.getKey());
+            data.writeUTF(entry.getValue()[0]);
+            data.writeUTF(entry.getValue()[1]);
+        }
+        data.write(seal(content.toByteArray(), loadOrCreateKey()));
+        data.flush();
+
+        Path temporaryPath = Files.createTempFile(cachePath.getParent(), "IntegrityCache", ".tmp");
+        try {
+            Files.write(temporaryPath, content.toByteArray());
+            try {
+                Files.move(temporaryPath, cachePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * Builds the metadata stamp of a file. Any change of content, replacement or metadata
+     * manipulation short of resetting the inode change time produces a different stamp.
+     */
+    static String stampOf(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        StringBuilder stamp = new StringBuilder()
+            .append(attributes.size()).append(':')
+            .append(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)).append(':')
+            .append(attributes.fileKey());
+        try {
+            Object changeTime = Files.getAttribute(file, "unix:ctime");
+            stamp.append(':').append(((FileTime) changeTime).to(TimeUnit.NANOSECONDS));
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // Not a POSIX file system; size, modification time and file key have to do
+        }
+        return stamp.toString();
+    }
+
+    private static int read(byte[] content, byte[] key, byte[] manifestDigest, Map<String, String[]> entries) throws Exception {
+        int macLength = Mac.getInstance(MAC_ALGORITHM).getMacLength();
+        if (content.length < macLength) {
+            throw new IOException("Integrity cache truncated");
+        }
+        byte[] body = Arrays.copyOf(content, content.length - macLength);
+        byte[] storedSeal = Arrays.copyOfRange(content, body.length, content.length);
+        if (!MessageDigest.isEqual(seal(body, key), storedSeal)) {
+            throw new IOException("Integrity cache seal mismatch");
+        }
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(body));
+        if (data.readInt() != MAGIC || data.readUnsignedShort() != VERSION) {
+            throw new IOException("Unsupported integrity cache");
+        }
+        byte[] storedDigest = new byte[data.readUnsignedShort()];
+        data.readFully(storedDigest);
+        if (!Arrays.equals(storedDigest, manifestDigest)) {
+            throw new IOException("Integrity cache belongs to another manifest");
+        }
+        int boots = data.readInt();
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            entries.put(data.readUTF(), new String[] {data.readUTF(), data.readUTF()});
+        }
+        return boots;
+    }
+
+    private static byte[] seal(byte[] content, byte[] key) throws Exception {
+        Mac mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+        return mac.doFinal(content);
+    }
+
+    private byte[] loadOrCreateKey() throws Exception {
+        if (Files.exists(keyPath)) {
+            return Files.readAllBytes(keyPath);
+        }
+        byte[] key = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        Files.write(keyPath, key, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            Files.setPosixFilePermissions(keyPath, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system
+        }
+        return key;
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is distributed under the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package Cataphract.Core;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import Cataphract.API.Config;
+import Cataphract.API.Wraith.FileWrite;
+import Cataphract.API.Wraith.LogLevel;
+
+/**
+ * Performs integrity checks for Cataphract boot.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+class IntegrityChecker {
+    // Names of the files and directories that are not part of the kernel, in lower case
+    private static final Set<String> IGNORED_FILE_NAMES = new HashSet<>(Arrays.asList(".manifest", "system", "users", "org", "jre", "logs"));
+    // Hashing is I/O bound on slow disks; more concurrent readers than this only add seeks
+    private static final int MAX_HASHING_THREADS = 4;
+    static final String MANIFEST_M1 = ".|.Manifest|Cataphract|KernelFilesHashes.m1";
+    static final String MANIFEST_M2 = ".|.Manifest|Cataphract|KernelFiles.m2";
+    static final String MANIFEST_TREE = ".|.Manifest|Cataphract|" + MerkleManifest.FILE_NAME;
+
+    private final FileWrite fileWrite;
+    private final boolean reportProgress;
+    private final Set<String> kernelFilePaths;
+    // The tree manifest, when present; the XML manifests are used otherwise
+    private MerkleManifest treeManifest;
+    private byte[] treeManifestContent;
+
+    public IntegrityChecker(FileWrite fileWrite) {
+        this(fileWrite, true);
+    }
+
+    /**
+     * @param reportProgress Whether the stages are printed; checks running behind the shell are silent.
+     */
+    public IntegrityChecker(FileWrite fileWrite, boolean reportProgress) {
+        this.fileWrite = fileWrite;
+        this.reportProgress = reportProgress;
+        this.kernelFilePaths = new HashSet<>();
+    }
+
+    public byte checkIntegrity() throws Exception {
+        try {
+            fileWrite.log(LogLevel.DEBUG, () -> "Starting integrity checks", Loader.LOG_FILE_NAME);
+            byte result = 55;
+
+            reportStage("Stage 0: Checking Manifest Files...");
+            fileWrite.log(LogLevel.DEBUG, () -> "Checking manifest files", Loader.LOG_FILE_NAME);
+            if (manifestFilesCheck()) {
+                reportStage("Stage 1: Manifest Files Found. Populating Kernel Files and Directories...");
+                fileWrite.log(LogLevel.DEBUG, () -> "Populating kernel files", Loader.LOG_FILE_NAME);
+                if (populateKernelFiles(Paths.get("."))) {
+                    reportStage("Stage 2: Kernel Files and Directories populated. Checking File Integrity - Phase 1...");
+                    fileWrite.log(LogLevel.DEBUG, () -> "Checking file hashes", Loader.LOG_FILE_NAME);
+                    if (checkFileHashes()) {
+                        reportStage("Stage 3: File Integrity Check - Phase 1 Complete. Checking File Integrity - Phase 2...");
+                        fileWrite.log(LogLevel.DEBUG, () -> "Checking file sizes", Loader.LOG_FILE_NAME);
+                        if (checkFileSizes()) {
+                            reportStage("Stage 4: File Integrity Check - Phase 2 Complete. Checking System and User Files...");
+                            fileWrite.log(LogLevel.DEBUG, () -> "Checking system and user files", Loader.LOG_FILE_NAME);
+                            if (!setupStatusCheck()) {
+                                result = 5;
+                                if (reportProgress) {
+                                    Config.io.printAttention("Setting up Cataphract...");
+                                }
+                                fileWrite.log(LogLevel.INFO, () -> "Setup required", Loader.LOG_FILE_NAME);
+                            } else {
+                                result = 0;
+                            }
+                        } else {
+                            result = 4;
+                        }
+                    } else {
+                        result = 3;
+                    }
+                } else {
+                    result = 2;
+                }
+            } else {
+                result = 1;
+            }
+
+            final int checkResult = result;
+            fileWrite.log(LogLevel.INFO, () -> "Integrity check result: " + checkResult, Loader.LOG_FILE_NAME);
+            kernelFilePaths.clear();
+            System.gc();
+            return result;
+        } catch (Exception e) {
+            Config.exceptionHandler.handleException(e);
+            fileWrite.log(LogLevel.ERROR, () -> "Integrity check error: " + e.getMessage(), Loader.LOG_FILE_NAME);
+            throw e;
+        }
+    }
+
+    private void reportStage(String message) {
+        if (reportProgress) {
+            Config.io.printInfo(message);
+        }
+    }
+
+    /**
+     * Converts the XML manifests into the tree manifest, which is then used by every later boot.
+     */
+    static void convertManifests() throws Exception {
+        Properties hashes = new Properties();
+        try (FileInputStream m1FileStream = new FileInputStream(Config.io.convertFileSeparator(MANIFEST_M1))) {
+            hashes.loadFromXML(m1FileStream);
+        }
+        Properties sizes = new Properties();
+        try (FileInputStream m2FileStream = new FileInputStream(Config.io.convertFileSeparator(MANIFEST_M2))) {
+            sizes.loadFromXML(m2FileStream);
+        }
+        Files.write(Paths.get(Config.io.convertFileSeparator(MANIFEST_TREE)), MerkleManifest.fromProperties(hashes, sizes).toBytes());
+    }
+
+    private boolean manifestFilesCheck() throws Exception {
+        Path treePath = Paths.get(Config.io.convertFileSeparator(MANIFEST_TREE));
+        if (Files.exists(treePath)) {
+            try {
+                treeManifestContent = Files.readAllBytes(treePath);
+                treeManifest = MerkleManifest.read(treeManifestContent);
+            } catch (IOException e) {
+                fileWrite.log(LogLevel.ERROR, () -> "Unreadable tree manifest: " + e.getMessage(), Loader.LOG_FILE_NAME);
+                return false;
+            }
+            fileWrite.log(LogLevel.DEBUG, () -> "Manifest files check: Passed, " + treeManifest.fileCount() + " files in the tree manifest", Loader.LOG_FILE_NAME);
+            return true;
+        }
+        boolean exists = new File(Config.io.convertFileSeparator(MANIFEST_M1)).exists() &&
+                        new File(Config.io.convertFileSeparator(MANIFEST_M2)).exists();
+        fileWrite.log(LogLevel.DEBUG, () -> "Manifest files check: " + (exists ? "Passed" : "Failed"), Loader.LOG_FILE_NAME);
+        return exists;
+    }
+
+    private boolean populateKernelFiles(Path root) throws Exception {
+        Path unreadable = collectKernelFiles(root, kernelFilePaths);
+        if (unreadable != null) {
+            fileWrite.log(LogLevel.ERROR, () -> "Failed to list files in directory: " + unreadable, Loader.LOG_FILE_NAME);
+            return false;
+        }
+        fileWrite.log(LogLevel.DEBUG, () -> "Populated " + kernelFilePaths.size() + " kernel files", Loader.LOG_FILE_NAME);
+        return true;
+    }
+
+    /**
+     * Collects the kernel files below the root, leaving out the ignored files and directories.
+     * The manifest generator signs exactly the files collected here.
+     *
+     * @param root  The directory to walk.
+     * @param files Receives the path of every kernel file.
+     * @return The first path that could not be read, or null if the walk completed.
+     */
+    static Path collectKernelFiles(Path root, Set<String> files) throws IOException {
+        Path[] unreadable = {null};
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                // Ignored directories are pruned without being listed
+                return directory.equals(root) || !isIgnored(directory) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (!isIgnored(file)) {
+                    files.add(file.toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                unreadable[0] = file;
+                return FileVisitResult.TERMINATE;
+            }
+        });
+        return unreadable[0];
+    }
+
+    static boolean isIgnored(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null && IGNORED_FILE_NAMES.contains(fileName.toString().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Verifies the hash of every kernel file against the manifest. The files are hashed on a
+     * bounded pool of daemon threads; the check stops at the first mismatch.
+     *
+     * A file whose metadata is unchanged since it was last verified is taken from the integrity
+     * cache instead of being hashed again, except on every n-th boot (policy
+     * "integrity_full_check"), when every file is hashed.
+     *
+     * With the tree manifest, the files on disk are first compared with it as a tree (see
+     * {@link #changedSubtrees}), and only the files of the differing directories are hashed, one
+     * directory per task. With the XML manifests every file not in the cache is hashed on its own.
+     */
+    private boolean checkFileHashes() throws Exception {
+        byte[] manifestContent;
+        Function<String, String> manifestHashes;
+        if (treeManifest != null) {
+            manifestContent = treeManifestContent;
+            manifestHashes = treeManifest::hashOf;
+        } else {
+            manifestContent = Files.readAllBytes(Paths.get(Config.io.convertFileSeparator(MANIFEST_M1)));
+            Properties manifestM1Entries = new Properties();
+            manifestM1Entries.loadFromXML(new ByteArrayInputStream(manifestContent));
+            manifestHashes = manifestM1Entries::getProperty;
+        }
+
+        IntegrityCache cache = IntegrityCache.load(manifestContent, fullCheckInterval());
+        if (cache.isFullCheck()) {
+            fileWrite.log(LogLevel.DEBUG, () -> "Full integrity check: every kernel file is hashed", Loader.LOG_FILE_NAME);
+        }
+        List<List<String>> batches;
+        if (treeManifest != null) {
+            batches = changedSubtrees(cache);
+            if (batches == null) {
+                return false;
+            }
+        } else {
+            batches = new ArrayList<>();
+            for (String fileName : kernelFilePaths) {
+                String manifestHash = manifestHashes.apply(Config.io.convertToNionSeparator(fileName));
+                if (manifestHash == null || !cache.isVerified(fileName, manifestHash)) {
+                    batches.add(List.of(fileName));
+                }
+            }
+        }
+        final int cachedCount = kernelFilePaths.size() - batches.stream().mapToInt(List::size).sum();
+        fileWrite.log(LogLevel.DEBUG, () -> cachedCount + " unchanged kernel files verified without hashing", Loader.LOG_FILE_NAME);
+
+        int threads = Math.min(MAX_HASHING_THREADS, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Loader-IntegrityChecker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<String[]> results = new ExecutorCompletionService<>(executor);
+            for (List<String> batch : batches) {
+                results.submit(() -> {
+                    for (String fileName : batch) {
+                        // Taken before hashing, so a change during the hash is caught on the next boot
+                        String stamp = IntegrityCache.stampOf(Paths.get(fileName));
+                        String kernelFileHash = Config.cryptography.fileToSHA3_256(new File(fileName));
+                        String manifestHash = manifestHashes.apply(Config.io.convertToNionSeparator(fileName));
+                        if (manifestHash == null || !manifestHash.equals(kernelFileHash)) {
+                            return new String[] {kernelFileHash, fileName};
+                        }
+                        cache.recordVerified(fileName, stamp, kernelFileHash);
+                    }
+                    return null;
+                });
+            }
+            for (int remaining = batches.size(); remaining > 0; remaining--) {
+                String[] failure = results.take().get();
+                if (failure != null) {
+                    Config.io.printError("Integrity Check Failure at " + failure[0] + "\t" + failure[1]);
+                    fileWrite.log(LogLevel.ERROR, () -> "File hash check failed for: " + failure[1], Loader.LOG_FILE_NAME);
+                    return false;
+                }
+            }
+        } finally {
+            // Cancels the files still queued after a failure
+            executor.shutdownNow();
+        }
+        try {
+            cache.save(kernelFilePaths);
+        } catch (Exception e) {
+            // Without the cache the next boot hashes every file again
+            fileWrite.log(LogLevel.WARN, () -> "Integrity cache not saved: " + e.getMessage(), Loader.LOG_FILE_NAME);
+        }
+        fileWrite.log(LogLevel.DEBUG, () -> "File hash check passed", Loader.LOG_FILE_NAME);
+        return true;
+    }
+
+    /**
+     * Compares the kernel files on disk with the tree manifest. The tree on disk is built from
+     * the hashes of the files verified on a previous boot; the other files are left unhashed.
+     * The comparison skips every directory whose hash matches, and stops at a file that is
+     * missing, added or of another size without hashing anything.
+     *
+     * @return The files still to hash, one batch per directory, or null if the trees differ.
+     */
+    private List<List<String>> changedSubtrees(IntegrityCache cache) throws Exception {
+        Map<String, String> leafHashes = new HashMap<>();
+        Map<String, Long> sizes = new HashMap<>();
+        Map<String, String> fileNames = new HashMap<>();
+        for (String fileName : kernelFilePaths) {
+            String key = Config.io.convertToNionSeparator(fileName);
+            String manifestHash = treeManifest.hashOf(key);
+            leafHashes.put(key, manifestHash != null && cache.isVerified(fileName, manifestHash) ? manifestHash : null);
+            // Sizes the manifest does not record are not compared
+            sizes.put(key, treeManifest.sizeOf(key) >= 0 ? new File(fileName).length() : -1L);
+            fileNames.put(key, fileName);
+        }
+        Map<String, List<String>> pending = new HashMap<>();
+        String difference = treeManifest.firstDifference(MerkleManifest.fromHashes(leafHashes, sizes), pending);
+        if (difference != null) {
+            Config.io.printError("Integrity Check Failure at " + difference);
+            fileWrite.log(LogLevel.ERROR, () -> "File tree check failed at: " + difference, Loader.LOG_FILE_NAME);
+            return null;
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (List<String> keys : pending.values()) {
+            List<String> batch = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                batch.add(fileNames.get(key));
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private int fullCheckInterval() {
+        if (!Config.policyCheck.isPolicyFileAvailable()) {
+            return IntegrityCache.DEFAULT_FULL_CHECK_INTERVAL;
+        }
+        try {
+            return Integer.parseInt(Config.policyCheck.retrievePolicyValue("integrity_full_check").trim());
+        } catch (NumberFormatException e) {
+            return IntegrityCache.DEFAULT_FULL_CHECK_INTERVAL;
+        }
+    }
+
+    private boolean checkFileSizes() throws Exception {
+        if (treeManifest != null) {
+            // The file count was checked along with the file tree
+            for (String fileName : kernelFilePaths) {
+                long manifestSize = treeManifest.sizeOf(Config.io.convertToNionSeparator(fileName));
+                long fileSize = new File(fileName).length();
+                if (manifestSize >= 0 && fileSize != manifestSize) {
+                    Config.io.printError("Integrity Check Failure at " + fileName + "\t" + fileSize + ". Expected " + manifestSize);
+                    fileWrite.log(LogLevel.ERROR, () -> "File size check failed for: " + fileName, Loader.LOG_FILE_NAME);
+                    return false;
+                }
+            }
+            fileWrite.log(LogLevel.DEBUG, () -> "File size check passed", Loader.LOG_FILE_NAME);
+            return true;
+        }
+
+        Properties manifestM2Entries = new Properties();
+        try (FileInputStream m2FileStream = new FileInputStream(Config.io.convertFileSeparator(MANIFEST_M2))) {
+            manifestM2Entries.loadFromXML(m2FileStream);
+        }
+
+        int fileCount = 0;
+        for (String fileName : kernelFilePaths) {
+            if (!fileName.endsWith(".class")) continue;
+            long fileSizeM2 = Long.parseLong(manifestM2Entries.getProperty(Config.io.convertToNionSeparator(fileName), "-1"));
+            long fileSize = new File(fileName).length();
+            if (fileSize != fileSizeM2) {
+                Config.io.printError("Integrity Check Failure at " + fileName + "\t" + fileSize + ". Expected " + fileSizeM2);
+                fileWrite.log(LogLevel.ERROR, () -> "File size check failed for: " + fileName, Loader.LOG_FILE_NAME);
+                return false;
+            }
+            fileCount++;
+        }
+        if (fileCount < manifestM2Entries.size()) {
+            Config.io.printError("Integrity Check Failure. Expected " + manifestM2Entries.size() + ". Found " + fileCount);
+            fileWrite.log(LogLevel.ERROR, () -> "File size check failed: File count mismatch", Loader.LOG_FILE_NAME);
+            return false;
+        }
+        fileWrite.log(LogLevel.DEBUG, () -> "File size check passed", Loader.LOG_FILE_NAME);
+        return true;
+    }
+
+    private boolean setupStatusCheck() throws Exception {
+        boolean exists = new File(Config.io.convertFileSeparator(".|System|Cataphract")).exists() &&
+                        new File(Config.io.convertFileSeparator(".|Users|Cataphract")).exists();
+        fileWrite.log(LogLevel.DEBUG, () -> "Setup status check: " + (exists ? "Passed" : "Failed"), Loader.LOG_FILE_NAME);
+        return exists;
+    }
+}
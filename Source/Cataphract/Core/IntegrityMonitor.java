@@ -0,0 +1,322 @@
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is distributed under the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package Cataphract.Core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import Cataphract.API.Config;
+import Cataphract.API.Wraith.FileWrite;
+import Cataphract.API.Wraith.LogLevel;
+
+/**
+ * Re-verifies the kernel files against the manifest while the kernel runs.
+ *
+ * Every kernel file is hashed again on a schedule (policy "integrity_monitor_interval", in
+ * minutes; 0 disables the monitor), and a file is checked shortly after a change to it is
+ * reported by the file system. The checks run on a single minimum-priority daemon thread whose
+ * reads are limited to a byte budget per second (policy "integrity_monitor_rate", in KiB), so
+ * they never compete with interactive commands.
+ *
+ * Tampering is reported once per change to the "IntegrityLog" log; nothing is printed.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class IntegrityMonitor {
+    static final String LOG_FILE_NAME = "IntegrityLog";
+
+    private static final int DEFAULT_INTERVAL_MINUTES = 60;
+    private static final int DEFAULT_RATE_KIB = 4096;
+    // Editors and updates write a file in several steps; it is checked once they are done
+    private static final long CHANGE_SETTLE_SECONDS = 2;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private final FileWrite fileWrite;
+    private final Path root;
+    private final Map<String, String> manifestHashes;
+    private final TokenBucket readBudget;
+    private final ScheduledExecutorService scheduler;
+    private final Set<Path> pendingChanges = ConcurrentHashMap.newKeySet();
+    // Reported problem per file, so a lasting change is not reported on every pass
+    private final Map<String, String> reported = new ConcurrentHashMap<>();
+
+    private IntegrityMonitor(FileWrite fileWrite, Path root, Map<String, String> manifestHashes, long bytesPerSecond) {
+        this.fileWrite = fileWrite;
+        this.root = root;
+        this.manifestHashes = manifestHashes;
+        this.readBudget = new TokenBucket(bytesPerSecond);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "IntegrityMonitor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the monitor for the kernel in the working directory, once per run. Called after the
+     * boot integrity check has passed, so the manifest read here is the verified one.
+     */
+    static void start(FileWrite fileWrite) {
+        int intervalMinutes = policyValue("integrity_monitor_interval", DEFAULT_INTERVAL_MINUTES);
+        if (intervalMinutes <= 0 || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long bytesPerSecond = Math.max(1, policyValue("integrity_monitor_rate", DEFAULT_RATE_KIB)) * 1024L;
+            IntegrityMonitor monitor = new IntegrityMonitor(fileWrite, Paths.get("."), loadManifestHashes(), bytesPerSecond);
+            monitor.scheduler.scheduleWithFixedDelay(monitor::verifyAll, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+            monitor.watchForChanges();
+            fileWrite.log(LogLevel.INFO, () -> "Integrity monitor started, full check every " + intervalMinutes + " minutes", LOG_FILE_NAME);
+        } catch (Exception e) {
+            log(fileWrite, LogLevel.ERROR, "Integrity monitor not started: " + e.getMessage());
+        }
+    }
+
+    private static int policyValue(String policy, int defaultValue) {
+        if (!Config.policyCheck.isPolicyFileAvailable()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(Config.policyCheck.retrievePolicyValue(policy).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static Map<String, String> loadManifestHashes() throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        Path treePath = Paths.get(Config.io.convertFileSeparator(IntegrityChecker.MANIFEST_TREE));
+        if (Files.exists(treePath)) {
+            MerkleManifest manifest = MerkleManifest.read(Files.readAllBytes(treePath));
+            for (String key : manifest.fileKeys()) {
+                hashes.put(key, manifest.hashOf(key));
+            }
+            return hashes;
+        }
+        Properties entries = new Properties();
+        try (FileInputStream m1FileStream = new FileInputStream(Config.io.convertFileSeparator(IntegrityChecker.MANIFEST_M1))) {
+            entries.loadFromXML(m1FileStream);
+        }
+        for (String key : entries.stringPropertyNames()) {
+            hashes.put(key, entries.getProperty(key));
+        }
+        return hashes;
+    }
+
+    /**
+     * Hashes every kernel file and reports files that changed, appeared or disappeared.
+     */
+    private void verifyAll() {
+        try {
+            Set<String> kernelFiles = new HashSet<>();
+            Path unreadable = IntegrityChecker.collectKernelFiles(root, kernelFiles);
+            if (unreadable != null) {
+                report(unreadable.toString(), "unreadable", "Kernel directory could not be read: " + unreadable);
+            }
+            Set<String> missingKeys = new HashSet<>(manifestHashes.keySet());
+            for (String fileName : kernelFiles) {
+                missingKeys.remove(Config.io.convertToNionSeparator(fileName));
+                verifyFile(Paths.get(fileName));
+            }
+            for (String key : missingKeys) {
+                verifyFile(Paths.get(Config.io.convertFileSeparator(key)));
+            }
+            log(fileWrite, LogLevel.DEBUG, "Integrity monitor checked " + kernelFiles.size() + " kernel files");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // A failed pass must not cancel the schedule
+            log(fileWrite, LogLevel.ERROR, "Integrity monitor check failed: " + e.getMessage());
+        }
+    }
+
+    private void verifyFile(Path file) throws Exception {
+        String fileName = file.toString();
+        String key = Config.io.convertToNionSeparator(fileName);
+        String expectedHash = manifestHashes.get(key);
+        if (!Files.isRegularFile(file)) {
+            if (expectedHash != null) {
+                report(fileName, "missing", "Kernel file missing: " + fileName);
+            }
+            return;
+        }
+        if (expectedHash == null) {
+            report(fileName, "unexpected", "Unexpected file in kernel: " + fileName);
+            return;
+        }
+        readBudget.acquire(Files.size(file));
+        String hash = Config.cryptography.fileToSHA3_256(new File(fileName));
+        if (expectedHash.equals(hash)) {
+            if (reported.remove(fileName) != null) {
+                log(fileWrite, LogLevel.INFO, "Kernel file matches the manifest again: " + fileName);
+            }
+        } else {
+            report(fileName, hash, "Kernel file modified: " + fileName + " (" + hash + ")");
+        }
+    }
+
+    private void report(String fileName, String problem, String message) {
+        if (!problem.equals(reported.put(fileName, problem))) {
+            log(fileWrite, LogLevel.ERROR, message);
+        }
+    }
+
+    /**
+     * Watches the kernel directories; changed files are checked on the monitor thread once
+     * they have settled.
+     */
+    private void watchForChanges() throws IOException {
+        WatchService watchService = root.getFileSystem().newWatchService();
+        Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+        Set<String> kernelFiles = new HashSet<>();
+        IntegrityChecker.collectKernelFiles(root, kernelFiles);
+        Set<Path> kernelDirectories = new HashSet<>();
+        kernelDirectories.add(root);
+        for (String fileName : kernelFiles) {
+            // Every directory between the file and the root
+            Path parent = Paths.get(fileName).getParent();
+            while (parent != null && kernelDirectories.add(parent)) {
+                parent = parent.getParent();
+            }
+        }
+        for (Path directory : kernelDirectories) {
+            register(watchService, directories, directory);
+        }
+
+        Thread watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey watchKey = watchService.take();
+                    Path directory = directories.get(watchKey);
+                    for (WatchEvent<?> event : watchKey.pollEvents()) {
+                        if (directory != null && event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                            Path changed = directory.resolve((Path) event.context());
+                            // Ignored directories are never registered, so only the entry itself is checked
+                            if (!IntegrityChecker.isIgnored(changed)) {
+                                onChange(watchService, directories, changed);
+                            }
+                        }
+                    }
+                    if (!watchKey.reset()) {
+                        directories.remove(watchKey);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // The monitor ends with the program
+            }
+        }, "IntegrityMonitor-Watch");
+        watcher.setDaemon(true);
+        watcher.setPriority(Thread.MIN_PRIORITY);
+        watcher.start();
+    }
+
+    private void onChange(WatchService watchService, Map<WatchKey, Path> directories, Path changed) {
+        if (Files.isDirectory(changed)) {
+            try {
+                register(watchService, directories, changed);
+            } catch (IOException e) {
+                log(fileWrite, LogLevel.WARN, "Unable to watch kernel directory: " + changed);
+            }
+            try (var entries = Files.list(changed)) {
+                entries.filter(entry -> !IntegrityChecker.isIgnored(entry)).forEach(entry -> onChange(watchService, directories, entry));
+            } catch (IOException e) {
+                report(changed.toString(), "unreadable", "Kernel directory could not be read: " + changed);
+            }
+            return;
+        }
+        if (pendingChanges.add(changed)) {
+            scheduler.schedule(() -> {
+                pendingChanges.remove(changed);
+                try {
+                    verifyFile(changed);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log(fileWrite, LogLevel.ERROR, "Integrity monitor check failed for " + changed + ": " + e.getMessage());
+                }
+            }, CHANGE_SETTLE_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void register(WatchService watchService, Map<WatchKey, Path> directories, Path directory) throws IOException {
+        directories.put(directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), directory);
+    }
+
+    private static void log(FileWrite fileWrite, LogLevel level, String message) {
+        try {
+            fileWrite.log(level, () -> message, LOG_FILE_NAME);
+        } catch (Exception e) {
+            Config.exceptionHandler.handleException(e);
+        }
+    }
+
+    /**
+     * Limits the bytes read per second. Up to one second of budget can be saved up; a larger
+     * read waits for its budget in parts.
+     */
+    static final class TokenBucket {
+        private final long bytesPerSecond;
+        private double available;
+        private long lastRefill;
+
+        TokenBucket(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.available = bytesPerSecond;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized void acquire(long bytes) throws InterruptedException {
+            while (bytes > 0) {
+                long now = System.nanoTime();
+                available = Math.min(bytesPerSecond, available + (now - lastRefill) * bytesPerSecond / 1e9);
+                lastRefill = now;
+                long portion = Math.min(bytes, bytesPerSecond);
+                if (available >= portion) {
+                    available -= portion;
+                    bytes -= portion;
+                } else {
+                    long waitNanos = (long) ((portion - available) * 1e9 / bytesPerSecond);
+                    TimeUnit.NANOSECONDS.sleep(Math.max(1, waitNanos));
+                }
+            }
+        }
+    }
+}
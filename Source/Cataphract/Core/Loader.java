@@ -18,14 +18,16 @@
 package Cataphract.Core;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.util.HashSet;
-import java.util.Properties;
-import java.util.Set;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import Cataphract.API.Config;
 import Cataphract.API.Wraith.FileRead;
 import Cataphract.API.Wraith.FileWrite;
+import Cataphract.API.Wraith.LogLevel;
 import Cataphract.API.Dragon.DatabaseInitializer;
 import Cataphract.API.Dragon.Login;
 import Cataphract.API.Minotaur.PolicyManager;
@@ -77,19 +79,19 @@ public class Loader {
         try {
             if (args.length == 0) {
                 Config.io.printError("No boot mode specified. Aborting...");
-                fileWrite.log("Boot failed: No boot mode specified", LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Boot failed: No boot mode specified", LOG_FILE_NAME);
                 System.exit(1);
                 return;
             }
 
             String mode = args[0].toLowerCase();
-            fileWrite.log("Starting Loader in mode: " + mode, LOG_FILE_NAME);
+            fileWrite.log(LogLevel.INFO, () -> "Starting Loader in mode: " + mode, LOG_FILE_NAME);
             BootMode bootMode = bootModeFactory.createBootMode(mode, args);
             bootMode.execute();
-            fileWrite.log("Boot mode " + mode + " executed", LOG_FILE_NAME);
+            fileWrite.log(LogLevel.DEBUG, () -> "Boot mode " + mode + " executed", LOG_FILE_NAME);
         } catch (Exception e) {
             Config.exceptionHandler.handleException(e);
-            fileWrite.log("Loader error: " + e.getMessage(), LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Loader error: " + e.getMessage(), LOG_FILE_NAME);
             throw e;
         }
     }
@@ -121,16 +123,18 @@ class DefaultBootModeFactory implements BootModeFactory {
                 return new ProbeMode(fileWrite);
             case "normal":
                 return new NormalMode(fileWrite);
+            case "deferred":
+                return new DeferredMode(fileWrite);
             case "debug":
                 if (args.length < 2) {
                     Config.io.printError("Invalid Syntax for debug mode.");
-                    fileWrite.log("Boot failed: Invalid debug mode syntax", Loader.LOG_FILE_NAME);
+                    fileWrite.log(LogLevel.ERROR, () -> "Boot failed: Invalid debug mode syntax", Loader.LOG_FILE_NAME);
                     System.exit(1);
                 }
-                return new DebugMode(args[1],  fileWrite);
+                return new DebugMode(args[1], args.length > 2 ? args[2] : null, fileWrite);
             default:
                 Config.io.printError("Invalid Boot Mode. Aborting...");
-                fileWrite.log("Boot failed: Invalid boot mode - " + mode, Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Boot failed: Invalid boot mode - " + mode, Loader.LOG_FILE_NAME);
                 System.exit(3);
                 throw new IllegalArgumentException("Invalid boot mode: " + mode);
         }
@@ -149,7 +153,7 @@ class ProbeMode implements BootMode {
 
     @Override
     public void execute() throws Exception {
-        fileWrite.log("Executing ProbeMode", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Executing ProbeMode", Loader.LOG_FILE_NAME);
         System.exit(7);
     }
 }
@@ -167,26 +171,47 @@ class NormalMode implements BootMode {
     @Override
     public void execute() throws Exception {
         Config.build.viewBuildInfo(false);
-        fileWrite.log("Executing NormalMode", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Executing NormalMode", Loader.LOG_FILE_NAME);
         new LoaderLogic(fileWrite).execute();
     }
 }
 
+/**
+ * Boot mode that starts the guest shell while the integrity checks run in the background.
+ * The kernel is not started before the checks have passed.
+ */
+class DeferredMode implements BootMode {
+    private final FileWrite fileWrite;
+
+    public DeferredMode(FileWrite fileWrite) {
+        this.fileWrite = fileWrite;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        Config.build.viewBuildInfo(false);
+        fileWrite.log(LogLevel.INFO, () -> "Executing DeferredMode", Loader.LOG_FILE_NAME);
+        new LoaderLogic(fileWrite, false).executeDeferred();
+    }
+}
+
 /**
  * Boot mode for debugging with specified options.
  */
 class DebugMode implements BootMode {
     private final String debugOption;
+    private final String debugArgument;
     private final FileWrite fileWrite;
 
-    public DebugMode(String debugOption, FileWrite fileWrite) {
+    public DebugMode(String debugOption, String debugArgument, FileWrite fileWrite) {
         this.debugOption = debugOption;
+        this.debugArgument = debugArgument;
         this.fileWrite = fileWrite;
     }
 
     @Override
     public void execute() throws Exception {
-        fileWrite.log("Executing DebugMode with option: " + debugOption, Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Executing DebugMode with option: " + debugOption, Loader.LOG_FILE_NAME);
         switch (debugOption.toLowerCase()) {
             case "crash":
                 throw new Exception("Simulated crash for debugging.");
@@ -195,7 +220,7 @@ class DebugMode implements BootMode {
                 Config.io.println(Config.time.getDateTimeUsingSpecifiedFormat("dd-MMMM-yyyy \nEEEE HH:mm:ss"));
                 Config.calendar.printCalendar(0, 0);
                 Config.calendar.printCalendar(8, 2077);
-                fileWrite.log("DebugMode: Astaroth calendar printed", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "DebugMode: Astaroth calendar printed", Loader.LOG_FILE_NAME);
                 System.exit(0);
                 break;
             case "io":
@@ -204,12 +229,23 @@ class DebugMode implements BootMode {
                 Config.io.printAttention("This is an attention message.");
                 Config.io.printInfo("This is an information message.");
                 Config.io.println("This is a normal printline message. Printing the same with colors");
-                fileWrite.log("DebugMode: IO test messages printed", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "DebugMode: IO test messages printed", Loader.LOG_FILE_NAME);
+                System.exit(0);
+                break;
+            case "manifest":
+                IntegrityChecker.convertManifests();
+                Config.io.printInfo("Converted the XML manifests to " + MerkleManifest.FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "DebugMode: XML manifests converted", Loader.LOG_FILE_NAME);
                 System.exit(0);
                 break;
+            case "benchmark":
+                boolean completed = new Benchmark().run(debugArgument == null ? "all" : debugArgument);
+                fileWrite.log(LogLevel.INFO, () -> "DebugMode: Benchmark " + debugArgument + " completed", Loader.LOG_FILE_NAME);
+                System.exit(completed ? 0 : 1);
+                break;
             default:
                 Config.io.printError("Undefined Debug Parameter.");
-                fileWrite.log("DebugMode error: Undefined parameter - " + debugOption, Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "DebugMode error: Undefined parameter - " + debugOption, Loader.LOG_FILE_NAME);
                 System.exit(1);
                 break;
         }
@@ -222,214 +258,134 @@ class DebugMode implements BootMode {
 class LoaderLogic {
     private final FileWrite fileWrite;
     private final IntegrityChecker integrityChecker;
+    // A failed check is acted on once, whether the shell or the background check sees it first
+    private final AtomicBoolean failureHandled = new AtomicBoolean();
 
     public LoaderLogic(FileWrite fileWrite) {
+        this(fileWrite, true);
+    }
+
+    public LoaderLogic(FileWrite fileWrite, boolean reportProgress) {
         this.fileWrite = fileWrite;
-        this.integrityChecker = new IntegrityChecker(fileWrite);
+        this.integrityChecker = new IntegrityChecker(fileWrite, reportProgress);
     }
 
     public void execute() throws Exception {
-        fileWrite.log("Starting LoaderLogic integrity checks", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "Starting LoaderLogic integrity checks", Loader.LOG_FILE_NAME);
         byte result = integrityChecker.checkIntegrity();
 
+        if (result == 0) {
+            Config.io.printInfo("Integrity checks passed. Booting Cataphract...");
+            fileWrite.log(LogLevel.INFO, () -> "Integrity checks passed, booting GuestShell", Loader.LOG_FILE_NAME);
+            IntegrityMonitor.start(fileWrite);
+            new GuestShell(fileWrite).execute();
+        } else {
+            handleFailure(result);
+        }
+    }
+
+    /**
+     * Starts the guest shell at once and runs the integrity checks on a background thread.
+     * Logging in waits for the checks; a failed check ends the program with the same exit
+     * codes as a normal boot, as soon as it is found.
+     */
+    public void executeDeferred() throws Exception {
+        fileWrite.log(LogLevel.DEBUG, () -> "Starting LoaderLogic deferred integrity checks", Loader.LOG_FILE_NAME);
+        FutureTask<Byte> verification = new FutureTask<>(integrityChecker::checkIntegrity);
+        Thread verifier = new Thread(() -> {
+            verification.run();
+            byte result = resultOf(verification);
+            // Setup is interactive, so it is left to the shell
+            if (result == 0) {
+                IntegrityMonitor.start(fileWrite);
+            } else if (result != 5) {
+                handleFailureOnce(result);
+            }
+        }, "Loader-IntegrityVerifier");
+        verifier.setDaemon(true);
+        verifier.start();
+
+        new GuestShell(fileWrite, () -> {
+            if (!verification.isDone()) {
+                Config.io.printInfo("Verifying Cataphract. Please wait...");
+            }
+            byte result = resultOf(verification);
+            if (result == 0) {
+                fileWrite.log(LogLevel.INFO, () -> "Deferred integrity checks passed, starting kernel", Loader.LOG_FILE_NAME);
+                return true;
+            }
+            handleFailureOnce(result);
+            return false;
+        }).execute();
+    }
+
+    private byte resultOf(FutureTask<Byte> verification) {
+        try {
+            return verification.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            // Already reported by the integrity checker; ends in the generic failure
+            return -1;
+        }
+    }
+
+    private void handleFailureOnce(byte result) {
+        if (!failureHandled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            handleFailure(result);
+        } catch (Exception e) {
+            Config.exceptionHandler.handleException(e);
+            System.exit(4);
+        }
+    }
+
+    private void handleFailure(byte result) throws Exception {
         switch (result) {
-            case 0:
-                Config.io.printInfo("Integrity checks passed. Booting Cataphract...");
-                fileWrite.log("Integrity checks passed, booting GuestShell", Loader.LOG_FILE_NAME);
-                new GuestShell(fileWrite).execute();
-                break;
             case 1:
                 Config.io.printError("Unable to locate or parse Manifest Files! Aborting boot...");
-                fileWrite.log("Integrity check failed: Missing manifest files", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Integrity check failed: Missing manifest files", Loader.LOG_FILE_NAME);
                 System.exit(4);
                 break;
             case 2:
                 Config.io.printError("Unable to populate the Kernel files! Aborting boot...");
-                fileWrite.log("Integrity check failed: Failed to populate kernel files", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Integrity check failed: Failed to populate kernel files", Loader.LOG_FILE_NAME);
                 System.exit(4);
                 break;
             case 3:
                 Config.io.printError("File Signature verification failed! Aborting boot...");
-                fileWrite.log("Integrity check failed: File signature verification", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Integrity check failed: File signature verification", Loader.LOG_FILE_NAME);
                 System.exit(4);
                 break;
             case 4:
                 Config.io.printError("File verification failed: Found File Size Discrepancy! Aborting boot...");
-                fileWrite.log("Integrity check failed: File size discrepancy", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Integrity check failed: File size discrepancy", Loader.LOG_FILE_NAME);
                 System.exit(4);
                 break;
             case 5:
-                fileWrite.log("Initiating Cataphract setup", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "Initiating Cataphract setup", Loader.LOG_FILE_NAME);
                 Setup setup = new Setup(fileWrite);
                 if (setup.setupCataphract()) {
-                    fileWrite.log("Setup completed, restarting", Loader.LOG_FILE_NAME);
+                    fileWrite.log(LogLevel.INFO, () -> "Setup completed, restarting", Loader.LOG_FILE_NAME);
                     System.exit(211);
                 } else {
                     Config.io.printError("Setup Failed!");
-                    fileWrite.log("Setup failed", Loader.LOG_FILE_NAME);
+                    fileWrite.log(LogLevel.ERROR, () -> "Setup failed", Loader.LOG_FILE_NAME);
                     System.exit(4);
                 }
                 break;
             default:
                 Config.io.printError("Generic Failure. Cannot Boot.");
-                fileWrite.log("Integrity check failed: Generic failure", Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Integrity check failed: Generic failure", Loader.LOG_FILE_NAME);
                 System.exit(4);
                 break;
         }
     }
 }
 
-/**
- * Performs integrity checks for Cataphract boot.
- */
-class IntegrityChecker {
-    private final FileWrite fileWrite;
-    private final Set<String> kernelFilePaths;
-
-    public IntegrityChecker(FileWrite fileWrite) {
-        this.fileWrite = fileWrite;
-        this.kernelFilePaths = new HashSet<>();
-    }
-
-    public byte checkIntegrity() throws Exception {
-        try {
-            fileWrite.log("Starting integrity checks", Loader.LOG_FILE_NAME);
-            byte result = 55;
-
-            Config.io.printInfo("Stage 0: Checking Manifest Files...");
-            fileWrite.log("Checking manifest files", Loader.LOG_FILE_NAME);
-            if (manifestFilesCheck()) {
-                Config.io.printInfo("Stage 1: Manifest Files Found. Populating Kernel Files and Directories...");
-                fileWrite.log("Populating kernel files", Loader.LOG_FILE_NAME);
-                if (populateKernelFiles(new File("./"))) {
-                    Config.io.printInfo("Stage 2: Kernel Files and Directories populated. Checking File Integrity - Phase 1...");
-                    fileWrite.log("Checking file hashes", Loader.LOG_FILE_NAME);
-                    if (checkFileHashes()) {
-                        Config.io.printInfo("Stage 3: File Integrity Check - Phase 1 Complete. Checking File Integrity - Phase 2...");
-                        fileWrite.log("Checking file sizes", Loader.LOG_FILE_NAME);
-                        if (checkFileSizes()) {
-                            Config.io.printInfo("Stage 4: File Integrity Check - Phase 2 Complete. Checking System and User Files...");
-                            fileWrite.log("Checking system and user files", Loader.LOG_FILE_NAME);
-                            if (!setupStatusCheck()) {
-                                result = 5;
-                                Config.io.printAttention("Setting up Cataphract...");
-                                fileWrite.log("Setup required", Loader.LOG_FILE_NAME);
-                            } else {
-                                result = 0;
-                            }
-                        } else {
-                            result = 4;
-                        }
-                    } else {
-                        result = 3;
-                    }
-                } else {
-                    result = 2;
-                }
-            } else {
-                result = 1;
-            }
-
-            fileWrite.log("Integrity check result: " + result, Loader.LOG_FILE_NAME);
-            kernelFilePaths.clear();
-            System.gc();
-            return result;
-        } catch (Exception e) {
-            Config.exceptionHandler.handleException(e);
-            fileWrite.log("Integrity check error: " + e.getMessage(), Loader.LOG_FILE_NAME);
-            throw e;
-        }
-    }
-
-    private boolean manifestFilesCheck() throws Exception {
-        boolean exists = new File(Config.io.convertFileSeparator(".|.Manifest|Cataphract|KernelFilesHashes.m1")).exists() &&
-                        new File(Config.io.convertFileSeparator(".|.Manifest|Cataphract|KernelFiles.m2")).exists();
-        fileWrite.log("Manifest files check: " + (exists ? "Passed" : "Failed"), Loader.LOG_FILE_NAME);
-        return exists;
-    }
-
-    private boolean populateKernelFiles(File fileDirectory) throws Exception {
-        File[] fileList = fileDirectory.listFiles();
-        if (fileList == null) {
-            fileWrite.log("Failed to list files in directory: " + fileDirectory.getPath(), Loader.LOG_FILE_NAME);
-            return false;
-        }
-
-        for (File fileName : fileList) {
-            if (fileIgnoreList(fileName.getName())) continue;
-            if (fileName.isDirectory()) {
-                populateKernelFiles(fileName);
-            } else {
-                kernelFilePaths.add(fileName.getPath());
-            }
-        }
-        fileWrite.log("Populated " + kernelFilePaths.size() + " kernel files", Loader.LOG_FILE_NAME);
-        return true;
-    }
-
-    private boolean fileIgnoreList(String fileName) {
-        final String[] ignoreList = {".Manifest", "System", "Users", "org", "JRE", "Logs", "BuildSigner.java"};
-        for (String files : ignoreList) {
-            if (fileName.equalsIgnoreCase(files)) return true;
-        }
-        return false;
-    }
-
-    private boolean checkFileHashes() throws Exception {
-        Properties manifestM1Entries = new Properties();
-        try (FileInputStream m1FileStream = new FileInputStream(Config.io.convertFileSeparator(".|.Manifest|Cataphract|KernelFilesHashes.m1"))) {
-            manifestM1Entries.loadFromXML(m1FileStream);
-        }
-
-        for (String fileName : kernelFilePaths) {
-            if (fileIgnoreList(fileName)) continue;
-            String kernelFileHash = Config.cryptography.fileToSHA3_256(new File(fileName));
-            String manifestHash = manifestM1Entries.getProperty(Config.io.convertToNionSeparator(fileName));
-            if (manifestHash == null || !manifestHash.equals(kernelFileHash)) {
-                Config.io.printError("Integrity Check Failure at " + kernelFileHash + "\t" + fileName);
-                fileWrite.log("File hash check failed for: " + fileName, Loader.LOG_FILE_NAME);
-                return false;
-            }
-        }
-        fileWrite.log("File hash check passed", Loader.LOG_FILE_NAME);
-        return true;
-    }
-
-    private boolean checkFileSizes() throws Exception {
-        Properties manifestM2Entries = new Properties();
-        try (FileInputStream m2FileStream = new FileInputStream(Config.io.convertFileSeparator(".|.Manifest|Cataphract|KernelFiles.m2"))) {
-            manifestM2Entries.loadFromXML(m2FileStream);
-        }
-
-        int fileCount = 0;
-        for (String fileName : kernelFilePaths) {
-            if (!fileName.endsWith(".class")) continue;
-            long fileSizeM2 = Long.parseLong(manifestM2Entries.getProperty(Config.io.convertToNionSeparator(fileName), "-1"));
-            long fileSize = new File(fileName).length();
-            if (fileSize != fileSizeM2) {
-                Config.io.printError("Integrity Check Failure at " + fileName + "\t" + fileSize + ". Expected " + fileSizeM2);
-                fileWrite.log("File size check failed for: " + fileName, Loader.LOG_FILE_NAME);
-                return false;
-            }
-            fileCount++;
-        }
-        if (fileCount < manifestM2Entries.size()) {
-            Config.io.printError("Integrity Check Failure. Expected " + manifestM2Entries.size() + ". Found " + fileCount);
-            fileWrite.log("File size check failed: File count mismatch", Loader.LOG_FILE_NAME);
-            return false;
-        }
-        fileWrite.log("File size check passed", Loader.LOG_FILE_NAME);
-        return true;
-    }
-
-    private boolean setupStatusCheck() throws Exception {
-        boolean exists = new File(Config.io.convertFileSeparator(".|System|Cataphract")).exists() &&
-                        new File(Config.io.convertFileSeparator(".|Users|Cataphract")).exists();
-        fileWrite.log("Setup status check: " + (exists ? "Passed" : "Failed"), Loader.LOG_FILE_NAME);
-        return exists;
-    }
-}
-
 /**
  * Handles Cataphract setup process.
  */
@@ -452,7 +408,7 @@ class Setup {
      * @throws Exception If an error occurs during setup.
      */
     public boolean setupCataphract() throws Exception {
-        fileWrite.log("Starting Cataphract setup", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Starting Cataphract setup", Loader.LOG_FILE_NAME);
         String oobeIntroduction = """
 
             Welcome to Cataphract!
@@ -470,32 +426,32 @@ class Setup {
             If the current user is a System Administrator,\u00A0""";
 
         Config.io.confirmReturnToContinue(oobeIntroduction, ".\nSetup> ");
-        fileWrite.log("Displayed setup introduction", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "Displayed setup introduction", Loader.LOG_FILE_NAME);
 
         if (!showAndAcceptEULA()) {
-            fileWrite.log("Setup failed: EULA not accepted", Loader.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Setup failed: EULA not accepted", Loader.LOG_FILE_NAME);
             return false;
         }
         if (!createSystemDirectories()) {
-            fileWrite.log("Setup failed: Directory creation failed", Loader.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Setup failed: Directory creation failed", Loader.LOG_FILE_NAME);
             return false;
         }
         if (!initializeDatabase()) {
-            fileWrite.log("Setup failed: Database initialization failed", Loader.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Setup failed: Database initialization failed", Loader.LOG_FILE_NAME);
             return false;
         }
         if (!initializeDefaultPolicies()) {
-            fileWrite.log("Setup failed: Policy initialization failed", Loader.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Setup failed: Policy initialization failed", Loader.LOG_FILE_NAME);
             return false;
         }
         if (!createAdministratorAccount()) {
-            fileWrite.log("Setup failed: Admin account creation failed", Loader.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Setup failed: Admin account creation failed", Loader.LOG_FILE_NAME);
             return false;
         }
 
         displaySetupProgress();
         Config.io.confirmReturnToContinue("Setup complete! ", ".\nSetup> ");
-        fileWrite.log("Setup completed successfully", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Setup completed successfully", Loader.LOG_FILE_NAME);
         return prereqInfoStatus && initAdminAccount && initDB && initDirs && initPolicies;
     }
 
@@ -508,18 +464,18 @@ class Setup {
         Config.io.println("[*] Initialize Program Policies  : " + (initPolicies ? "COMPLETED" : "PENDING"));
         Config.io.println("[*] Create Administrator Account : " + (initAdminAccount ? "COMPLETED" : "PENDING"));
         Config.io.println("[ ----------------------------- ]\n");
-        fileWrite.log("Displayed setup progress", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "Displayed setup progress", Loader.LOG_FILE_NAME);
     }
 
     private boolean showAndAcceptEULA() throws Exception {
         displaySetupProgress();
-        FileRead fileRead = new FileRead(new Login(null));
+        FileRead fileRead = new FileRead(new Login(""));
         Config.io.println("Please read the End User License Agreement:");
         //Config.fileRead.readHelpFile("EULA");
         fileRead.execute(new String[]{"help", "EULA"});
         String input = Config.console.readLine("Do you accept the EULA? [ Y / N ]\nEULA?> ").toLowerCase();
         boolean accepted = input.equals("y") || input.equals("yes");
-        fileWrite.log("EULA acceptance: " + (accepted ? "Accepted" : "Not accepted"), Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "EULA acceptance: " + (accepted ? "Accepted" : "Not accepted"), Loader.LOG_FILE_NAME);
         if (accepted) {
             fileRead.execute(new String[]{"help", "LICENSE"});
             prereqInfoStatus = true;
@@ -540,19 +496,19 @@ class Setup {
             File directory = new File(Config.io.convertFileSeparator(dir));
             if (!directory.exists() && !directory.mkdirs()) {
                 Config.io.printError("Failed to create directory: " + dir);
-                fileWrite.log("Directory creation failed: " + dir, Loader.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.ERROR, () -> "Directory creation failed: " + dir, Loader.LOG_FILE_NAME);
                 initDirs = false;
                 break;
             }
         }
-        fileWrite.log("System directories created successfully", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "System directories created successfully", Loader.LOG_FILE_NAME);
         initDirs = true;
         return initDirs;
     }
 
     private boolean initializeDatabase() throws Exception {
         initDB = DatabaseInitializer.initializeDatabase();
-        fileWrite.log("Database initialized " + (initDB ? "successfully" : "unsuccessfully"), Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Database initialized " + (initDB ? "successfully" : "unsuccessfully"), Loader.LOG_FILE_NAME);
         return initDB;
     }
 
@@ -563,9 +519,9 @@ class Setup {
         boolean policiesInitialized = new File(policyFilePath).exists();
         if (!policiesInitialized) {
             Config.io.printError("Failed to initialize policy file: " + policyFilePath);
-            fileWrite.log("Policy initialization failed: Policy file not created", Loader.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Policy initialization failed: Policy file not created", Loader.LOG_FILE_NAME);
         }
-        fileWrite.log("Default policies initialized successfully", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Default policies initialized successfully", Loader.LOG_FILE_NAME);
         initPolicies = true;
         return initPolicies;
     }
@@ -573,7 +529,7 @@ class Setup {
     private boolean createAdministratorAccount() throws Exception {
         Config.io.println("Creating administrator account...");
         new AccountCreate("Administrator").createDefaultAdministratorAccount();
-        fileWrite.log("Administrator account created successfully", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Administrator account created successfully", Loader.LOG_FILE_NAME);
         initAdminAccount = true;
         return initAdminAccount;
     }
@@ -584,18 +540,26 @@ class Setup {
  */
 class GuestShell {
     private final FileWrite fileWrite;
+    // Decides whether the kernel may be started; waits for deferred integrity checks
+    private final Callable<Boolean> kernelGate;
 
     public GuestShell(FileWrite fileWrite) {
+        this(fileWrite, () -> true);
+    }
+
+    public GuestShell(FileWrite fileWrite, Callable<Boolean> kernelGate) {
         this.fileWrite = fileWrite;
+        this.kernelGate = kernelGate;
     }
 
     public void execute() throws Exception {
-        fileWrite.log("Starting GuestShell", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Starting GuestShell", Loader.LOG_FILE_NAME);
         String input;
         do {
             input = Config.console.readLine("> ");
-            String[] commandArray = Config.io.splitStringToArray(input);
-            fileWrite.log("GuestShell command: " + input, Loader.LOG_FILE_NAME);
+            final String command = input;
+            String[] commandArray = Config.io.splitStringToArray(command);
+            fileWrite.log(LogLevel.DEBUG, () -> "GuestShell command: " + command, Loader.LOG_FILE_NAME);
 
             switch (commandArray[0].toLowerCase()) {
                 case "exit":
@@ -603,20 +567,23 @@ class GuestShell {
                     break;
                 case "clear":
                     Config.build.clearScreen();
-                    fileWrite.log("GuestShell: Cleared screen", Loader.LOG_FILE_NAME);
+                    fileWrite.log(LogLevel.TRACE, () -> "GuestShell: Cleared screen", Loader.LOG_FILE_NAME);
                     break;
                 case "login":
+                    if (!kernelGate.call()) {
+                        break;
+                    }
                     new SycoraxKernel(fileWrite).startSycoraxKernel();
                     Config.build.viewBuildInfo(false);
                     Config.io.println("Logout Successful");
-                    fileWrite.log("GuestShell: Login completed, logged out", Loader.LOG_FILE_NAME);
+                    fileWrite.log(LogLevel.INFO, () -> "GuestShell: Login completed, logged out", Loader.LOG_FILE_NAME);
                     break;
                 default:
                     Config.io.printError(commandArray[0] + " Command Not Found.");
-                    fileWrite.log("GuestShell error: Command not found - " + commandArray[0], Loader.LOG_FILE_NAME);
+                    fileWrite.log(LogLevel.DEBUG, () -> "GuestShell error: Command not found - " + commandArray[0], Loader.LOG_FILE_NAME);
                     break;
             }
         } while (!input.equalsIgnoreCase("exit"));
-        fileWrite.log("GuestShell terminated", Loader.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "GuestShell terminated", Loader.LOG_FILE_NAME);
     }
 }
\ No newline at end of file
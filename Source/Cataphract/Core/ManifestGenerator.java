@@ -0,0 +1,189 @@
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is distributed under the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package Cataphract.Core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import Cataphract.API.Config;
+
+/**
+ * Signs a build: writes the kernel manifests checked by the Loader at boot.
+ *
+ * Run from the build directory with {@code java Cataphract.Core.ManifestGenerator [--full]}.
+ * The kernel files are collected with the same ignore rules as the integrity check and hashed
+ * in parallel. A file whose metadata stamp (see {@link IntegrityCache#stampOf}) is the one
+ * recorded at the previous signing keeps its previous hash; {@code --full} hashes every file.
+ *
+ * Writes {@code KernelFilesHashes.m1} (hashes), {@code KernelFiles.m2} (sizes of the class
+ * files), the tree manifest {@code Kernel.mtree} and {@code KernelFiles.stamps} (the stamps of
+ * the hashed files, read by the next signing only).
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+public final class ManifestGenerator {
+    private static final String MANIFEST_STAMPS = ".|.Manifest|Cataphract|KernelFiles.stamps";
+
+    private final boolean fullRehash;
+    private final Map<String, String> previousHashes = new HashMap<>();
+    private final Map<String, String> previousStamps = new HashMap<>();
+    private final Properties stampEntries = new Properties();
+    private int reusedCount;
+
+    private ManifestGenerator(boolean fullRehash) {
+        this.fullRehash = fullRehash;
+    }
+
+    /**
+     * Entry point of the {@code sign} build step.
+     *
+     * @param args {@code --full} to ignore the previous manifest.
+     */
+    public static void main(String[] args) {
+        boolean fullRehash = args.length > 0 && args[0].equalsIgnoreCase("--full");
+        try {
+            long start = System.nanoTime();
+            ManifestGenerator generator = new ManifestGenerator(fullRehash);
+            int fileCount = generator.generate(Paths.get("."));
+            System.out.println("Signed " + fileCount + " files (" + generator.reusedCount + " unchanged) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Build signing failed: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private int generate(Path root) throws Exception {
+        Set<String> kernelFiles = new HashSet<>();
+        Path unreadable = IntegrityChecker.collectKernelFiles(root, kernelFiles);
+        if (unreadable != null) {
+            throw new IOException("Unable to read " + unreadable);
+        }
+        if (!fullRehash) {
+            loadPreviousManifest();
+        }
+
+        Map<String, String> hashes = hashFiles(kernelFiles);
+        Map<String, Long> sizes = new HashMap<>();
+        Properties hashEntries = new Properties();
+        Properties sizeEntries = new Properties();
+        for (String fileName : kernelFiles) {
+            String key = Config.io.convertToNionSeparator(fileName);
+            long size = new File(fileName).length();
+            sizes.put(key, size);
+            hashEntries.setProperty(key, hashes.get(key));
+            // The integrity check compares the sizes of the class files only
+            if (fileName.endsWith(".class")) {
+                sizeEntries.setProperty(key, String.valueOf(size));
+            }
+        }
+
+        Files.createDirectories(Paths.get(Config.io.convertFileSeparator(".|.Manifest|Cataphract")));
+        storeManifest(IntegrityChecker.MANIFEST_M1, hashEntries);
+        storeManifest(IntegrityChecker.MANIFEST_M2, sizeEntries);
+        storeManifest(MANIFEST_STAMPS, stampEntries);
+        Files.write(Paths.get(Config.io.convertFileSeparator(IntegrityChecker.MANIFEST_TREE)), MerkleManifest.fromHashes(hashes, sizes).toBytes());
+        return kernelFiles.size();
+    }
+
+    /**
+     * Hashes the files on a pool of daemon threads, reusing the previous hash of unchanged files.
+     *
+     * @return The hash of every file, by manifest key.
+     */
+    private Map<String, String> hashFiles(Set<String> kernelFiles) throws Exception {
+        Map<String, String> hashes = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "ManifestGenerator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<String[]> results = new ExecutorCompletionService<>(executor);
+            int submitted = 0;
+            for (String fileName : kernelFiles) {
+                String key = Config.io.convertToNionSeparator(fileName);
+                // Taken before hashing, so a file changed meanwhile is hashed again next time
+                String stamp = IntegrityCache.stampOf(Paths.get(fileName));
+                stampEntries.setProperty(key, stamp);
+                String previousHash = previousHashes.get(key);
+                if (previousHash != null && stamp.equals(previousStamps.get(key))) {
+                    hashes.put(key, previousHash);
+                    reusedCount++;
+                    continue;
+                }
+                results.submit(() -> new String[] {key, Config.cryptography.fileToSHA3_256(new File(fileName))});
+                submitted++;
+            }
+            for (; submitted > 0; submitted--) {
+                String[] result = results.take().get();
+                hashes.put(result[0], result[1]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return hashes;
+    }
+
+    /**
+     * Loads the hashes and stamps of the previous signing. Without stamps every file is hashed.
+     */
+    private void loadPreviousManifest() throws IOException {
+        File previousManifest = new File(Config.io.convertFileSeparator(IntegrityChecker.MANIFEST_M1));
+        File previousStampFile = new File(Config.io.convertFileSeparator(MANIFEST_STAMPS));
+        if (!previousManifest.exists() || !previousStampFile.exists()) {
+            return;
+        }
+        loadEntries(previousManifest, previousHashes);
+        loadEntries(previousStampFile, previousStamps);
+    }
+
+    private static void loadEntries(File manifest, Map<String, String> target) throws IOException {
+        Properties entries = new Properties();
+        try (FileInputStream manifestStream = new FileInputStream(manifest)) {
+            entries.loadFromXML(manifestStream);
+        }
+        for (String key : entries.stringPropertyNames()) {
+            target.put(key, entries.getProperty(key));
+        }
+    }
+
+    private static void storeManifest(String nionPath, Properties entries) throws IOException {
+        try (FileOutputStream manifestStream = new FileOutputStream(Config.io.convertFileSeparator(nionPath))) {
+            entries.storeToXML(manifestStream, null);
+        }
+    }
+}
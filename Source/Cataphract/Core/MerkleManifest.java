@@ -0,0 +1,364 @@
+/*
+ * This file is part of the Cataphract project.
+ * Copyright (C) 2024 DAK404 (https://github.com/DAK404)
+ *
+ * This program is distributed under the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package Cataphract.Core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Binary Merkle-tree manifest of the kernel files, stored as {@code Kernel.mtree}.
+ *
+ * Every file is a leaf holding its size and SHA3-256 hash; every directory holds the hash of
+ * its children, so the root hash covers the content, the sizes and the layout of the whole tree. Two
+ * manifests are compared from the root down, skipping every subtree whose hashes match, which
+ * names the exact differing file without visiting the rest of the tree.
+ *
+ * Files are addressed by their manifest key, the path with the "|" separator (for example
+ * {@code .|Cataphract|Core|Loader.class}), as in the XML manifests the tree is converted from.
+ *
+ * Layout: magic "CMTR", version, then the nodes in pre-order. A file is written as its kind,
+ * name, size and hash; a directory as its kind, name, child count, children and hash. Sizes
+ * unknown to the source manifest are stored as -1 and are not checked.
+ *
+ * @author DAK404 (https://github.com/DAK404)
+ * @version 1.5.0 (14-July-2025, Cataphract)
+ * @since 1.5.0 (Cataphract 1.5.0)
+ */
+final class MerkleManifest {
+    static final String FILE_NAME = "Kernel.mtree";
+
+    private static final int MAGIC = 0x434D5452; // "CMTR"
+    // Version 2 covers the file sizes in the directory hashes
+    private static final int VERSION = 2;
+    private static final String HASH_ALGORITHM = "SHA3-256";
+    private static final int HASH_BYTES = 32;
+    private static final byte FILE = 0;
+    private static final byte DIRECTORY = 1;
+    private static final String KEY_SEPARATOR = "|";
+    private static final String ROOT_NAME = ".";
+
+    private final Node root;
+    private final Map<String, Node> files;
+
+    private MerkleManifest(Node root) {
+        this.root = root;
+        this.files = new HashMap<>();
+        index(root, ROOT_NAME);
+    }
+
+    /**
+     * Builds a manifest from the hashes of the files. A file whose hash is null is not hashed
+     * yet; the directories above it have no hash, and such a manifest can only be compared with
+     * {@link #firstDifference}, not written.
+     *
+     * @param hashes The hexadecimal SHA3-256 hash of every file, by manifest key.
+     * @param sizes  The size of the files, by manifest key; files without one are not size checked.
+     */
+    static MerkleManifest fromHashes(Map<String, String> hashes, Map<String, Long> sizes) throws IOException {
+        Node root = new Node(ROOT_NAME, DIRECTORY);
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            String[] names = entry.getKey().split(Pattern.quote(KEY_SEPARATOR));
+            if (names.length < 2 || !names[0].equals(ROOT_NAME)) {
+                throw new IOException("Invalid manifest key: " + entry.getKey());
+            }
+            Node directory = root;
+            for (int i = 1; i < names.length - 1; i++) {
+                directory = directory.child(names[i], DIRECTORY);
+            }
+            Node file = directory.child(names[names.length - 1], FILE);
+            file.size = sizes.getOrDefault(entry.getKey(), -1L);
+            if (entry.getValue() == null) {
+                continue;
+            }
+            try {
+                file.hash = HexFormat.of().parseHex(entry.getValue().trim());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid hash for " + entry.getKey(), e);
+            }
+            if (file.hash.length != HASH_BYTES) {
+                throw new IOException("Invalid hash for " + entry.getKey());
+            }
+        }
+        sealTree(root);
+        return new MerkleManifest(root);
+    }
+
+    /**
+     * Converts the XML manifests: hashes from {@code KernelFilesHashes.m1} and sizes from
+     * {@code KernelFiles.m2}.
+     */
+    static MerkleManifest fromProperties(Properties hashes, Properties sizes) throws IOException {
+        Map<String, String> fileHashes = new HashMap<>();
+        for (String key : hashes.stringPropertyNames()) {
+            fileHashes.put(key, hashes.getProperty(key));
+        }
+        Map<String, Long> fileSizes = new HashMap<>();
+        for (String key : sizes.stringPropertyNames()) {
+            try {
+                fileSizes.put(key, Long.parseLong(sizes.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid size for " + key, e);
+            }
+        }
+        return fromHashes(fileHashes, fileSizes);
+    }
+
+    /**
+     * Reads a manifest, checking every directory hash against the stored hashes of its children;
+     * a tree whose stored hashes do not match its leaves is rejected.
+     */
+    static MerkleManifest read(byte[] content) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(content));
+        if (data.readInt() != MAGIC || data.readUnsignedShort() != VERSION) {
+            throw new IOException("Unsupported manifest format");
+        }
+        Node root = readNode(data);
+        if (root.kind != DIRECTORY || !root.name.equals(ROOT_NAME) || data.available() != 0) {
+            throw new IOException("Malformed manifest");
+        }
+        return new MerkleManifest(root);
+    }
+
+    byte[] toBytes() throws IOException {
+        if (root.hash == null) {
+            throw new IOException("Manifest has files without a hash");
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(content);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        writeNode(data, root);
+        data.flush();
+        return content.toByteArray();
+    }
+
+    /**
+     * Retrieves the hexadecimal hash of a file.
+     *
+     * @return The hash, or null if the file is not in the manifest.
+     */
+    String hashOf(String key) {
+        Node file = files.get(key);
+        return file == null ? null : HexFormat.of().formatHex(file.hash);
+    }
+
+    /**
+     * Retrieves the size of a file.
+     *
+     * @return The size, or -1 if the file is not in the manifest or its size is not recorded.
+     */
+    long sizeOf(String key) {
+        Node file = files.get(key);
+        return file == null ? -1 : file.size;
+    }
+
+    int fileCount() {
+        return files.size();
+    }
+
+    /**
+     * @return The manifest keys of all files.
+     */
+    Set<String> fileKeys() {
+        return Collections.unmodifiableSet(files.keySet());
+    }
+
+    /**
+     * Compares this manifest with another, descending only into the subtrees whose hashes differ
+     * or are not known yet. A file of the other manifest that is not hashed yet is not a
+     * difference if its size matches: it is collected, under the key of its directory, to be
+     * hashed and compared with {@link #hashOf}.
+     *
+     * @param other   The manifest to compare, typically built from the files on disk.
+     * @param pending Receives the keys of the files not hashed yet, by directory key.
+     * @return The manifest key of the first file or directory that is missing, added or changed
+     *         in the other manifest, or null if both describe the same tree once the pending
+     *         files match their hashes.
+     */
+    String firstDifference(MerkleManifest other, Map<String, List<String>> pending) {
+        return firstDifference(root, other.root, ROOT_NAME, pending);
+    }
+
+    private static String firstDifference(Node expected, Node actual, String key, Map<String, List<String>> pending) {
+        if (expected.kind != actual.kind) {
+            return key;
+        }
+        if (actual.hash != null && Arrays.equals(expected.hash, actual.hash)) {
+            return null;
+        }
+        if (expected.kind == FILE) {
+            return key;
+        }
+        Set<String> names = new TreeSet<>(expected.children.keySet());
+        names.addAll(actual.children.keySet());
+        for (String name : names) {
+            Node expectedChild = expected.children.get(name);
+            Node actualChild = actual.children.get(name);
+            String childKey = key + KEY_SEPARATOR + name;
+            if (expectedChild == null || actualChild == null) {
+                return childKey;
+            }
+            if (actualChild.kind == FILE && actualChild.hash == null && expectedChild.kind == FILE) {
+                if (actualChild.size != expectedChild.size) {
+                    return childKey;
+                }
+                pending.computeIfAbsent(key, directory -> new ArrayList<>()).add(childKey);
+                continue;
+            }
+            String difference = firstDifference(expectedChild, actualChild, childKey, pending);
+            if (difference != null) {
+                return difference;
+            }
+        }
+        // A directory with files still to hash matches so far; a complete one differs by its hash alone
+        return actual.hash == null ? null : key;
+    }
+
+    private void index(Node node, String key) {
+        if (node.kind == FILE) {
+            files.put(key, node);
+            return;
+        }
+        for (Node child : node.children.values()) {
+            index(child, key + KEY_SEPARATOR + child.name);
+        }
+    }
+
+    /**
+     * Computes the directory hashes of a tree bottom-up. A directory with a file not hashed yet
+     * below it has no hash.
+     */
+    private static void sealTree(Node directory) throws IOException {
+        boolean complete = true;
+        for (Node child : directory.children.values()) {
+            if (child.kind == DIRECTORY) {
+                sealTree(child);
+            }
+            complete &= child.hash != null;
+        }
+        directory.hash = complete ? directoryHash(directory) : null;
+    }
+
+    /**
+     * Computes the hash of a directory from the hashes its children hold: it covers the kind,
+     * name and hash of each child, and the size of each file, in name order.
+     */
+    private static byte[] directoryHash(Node directory) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(content);
+        for (Node child : directory.children.values()) {
+            data.writeByte(child.kind);
+            data.writeUTF(child.name);
+            if (child.kind == FILE) {
+                data.writeLong(child.size);
+            }
+            data.write(child.hash);
+        }
+        data.flush();
+        return newDigest().digest(content.toByteArray());
+    }
+
+    private static Node readNode(DataInputStream data) throws IOException {
+        byte kind = data.readByte();
+        if (kind != FILE && kind != DIRECTORY) {
+            throw new IOException("Malformed manifest");
+        }
+        Node node = new Node(data.readUTF(), kind);
+        if (kind == FILE) {
+            node.size = data.readLong();
+        } else {
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                Node child = readNode(data);
+                if (node.children.put(child.name, child) != null) {
+                    throw new IOException("Duplicate manifest entry: " + child.name);
+                }
+            }
+        }
+        node.hash = new byte[HASH_BYTES];
+        data.readFully(node.hash);
+        // The children were checked as they were read, so only this directory's own hash is left
+        if (kind == DIRECTORY && !MessageDigest.isEqual(node.hash, directoryHash(node))) {
+            throw new IOException("Manifest hash mismatch at directory: " + node.name);
+        }
+        return node;
+    }
+
+    private static void writeNode(DataOutputStream data, Node node) throws IOException {
+        data.writeByte(node.kind);
+        data.writeUTF(node.name);
+        if (node.kind == FILE) {
+            data.writeLong(node.size);
+        } else {
+            data.writeInt(node.children.size());
+            for (Node child : node.children.values()) {
+                writeNode(data, child);
+            }
+        }
+        data.write(node.hash);
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * A file or directory of the tree. The children of a directory are kept in name order.
+     */
+    private static final class Node {
+        final String name;
+        final byte kind;
+        final TreeMap<String, Node> children = new TreeMap<>();
+        long size = -1;
+        byte[] hash;
+
+        Node(String name, byte kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+
+        Node child(String name, byte kind) throws IOException {
+            Node child = children.computeIfAbsent(name, n -> new Node(n, kind));
+            if (child.kind != kind) {
+                throw new IOException("Manifest entry is both a file and a directory: " + name);
+            }
+            return child;
+        }
+    }
+}
@@ -20,6 +20,13 @@ package Cataphract.Core;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,12 +36,19 @@ import Cataphract.API.Wraith.FileManagement;
 import Cataphract.API.Wraith.FileRead;
 import Cataphract.API.Wraith.FileUnzip;
 import Cataphract.API.Wraith.FileWrite;
+import Cataphract.API.Wraith.LogLevel;
+import Cataphract.API.Wraith.LogQuery;
 import Cataphract.API.Wyvern.UpdateManager;
 import Cataphract.API.Dragon.AccountCreate;
 import Cataphract.API.Dragon.AccountDelete;
 import Cataphract.API.Dragon.AccountModify;
+import Cataphract.API.Dragon.AccountTransfer;
 import Cataphract.API.Dragon.AuthInputHelper;
+import Cataphract.API.Dragon.DatabaseManager;
 import Cataphract.API.Dragon.Login;
+import Cataphract.API.Dragon.UserAccount;
+import Cataphract.API.Dragon.UserRecordCache;
+import Cataphract.API.Minotaur.Permission;
 import Cataphract.API.Minotaur.PolicyManager;
 
 /**
@@ -74,19 +88,19 @@ public class SycoraxKernel {
     public void startSycoraxKernel() throws Exception {
         try {
             Config.build.viewBuildInfo(false);
-            fileWrite.log("Starting Sycorax kernel", LOG_FILE_NAME);
+            fileWrite.log(LogLevel.INFO, () -> "Starting Sycorax kernel", LOG_FILE_NAME);
             while (!authManager.login()) {
                 Config.io.printError("Incorrect Credentials! Please try again.");
-                fileWrite.log("Failed login attempt", LOG_FILE_NAME);
+                fileWrite.log(LogLevel.WARN, () -> "Failed login attempt", LOG_FILE_NAME);
                 authManager.handleFailedLoginAttempt();
             }
             Config.io.printInfo("Login Successful. Loading Sycorax Kernel...");
-            fileWrite.log("Login successful for user: " + authManager.getUsername(), LOG_FILE_NAME);
-            sessionManager.fetchUserDetails(authManager.getUsername());
+            fileWrite.log(LogLevel.INFO, () -> "Login successful for user: " + authManager.getUsername(), LOG_FILE_NAME);
+            sessionManager.fetchUserDetails(authManager.getUserAccount());
             commandProcessor.runUserShell();
         } catch (Exception e) {
             Config.exceptionHandler.handleException(e);
-            fileWrite.log("Kernel startup failed: " + e.getMessage(), LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Kernel startup failed: " + e.getMessage(), LOG_FILE_NAME);
         }
     }
 }
@@ -96,6 +110,7 @@ public class SycoraxKernel {
  */
 class AuthenticationManager {
     private String username = "DEFAULT_USERNAME";
+    private UserAccount userAccount;
     private int loginAttemptsRemaining = 5;
     private final FileWrite fileWrite;
 
@@ -113,24 +128,29 @@ class AuthenticationManager {
         try {
             Config.build.viewBuildInfo(false);
             Config.io.printInfo("Authentication Attempts Left: " + loginAttemptsRemaining);
-            fileWrite.log("Attempting login, attempts remaining: " + loginAttemptsRemaining, SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.DEBUG, () -> "Attempting login, attempts remaining: " + loginAttemptsRemaining, SycoraxKernel.LOG_FILE_NAME);
             String[] credentials = AuthInputHelper.readCredentials(Config.console);
             if (credentials == null || credentials[0] == null || credentials[0].trim().isEmpty()) {
                 Config.io.printError("Username cannot be empty.");
-                fileWrite.log("Login failed: Empty username", SycoraxKernel.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.WARN, () -> "Login failed: Empty username", SycoraxKernel.LOG_FILE_NAME);
                 return false;
             }
             username = credentials[0];
             String password = credentials[1];
             String securityKey = credentials[2];
-            boolean success = new Login(username).authenticationLogic(password, securityKey);
+            // The credentials are always read from the database at login
+            UserRecordCache.invalidate(username);
+            Login login = new Login(username);
+            boolean success = login.authenticationLogic(password, securityKey);
             if (success) {
-                fileWrite.log("Login successful for user: " + username, SycoraxKernel.LOG_FILE_NAME);
+                // Read along with the credentials; the session reuses it
+                userAccount = login.loadUserAccount();
+                fileWrite.log(LogLevel.INFO, () -> "Login successful for user: " + username, SycoraxKernel.LOG_FILE_NAME);
             }
             return success;
         } catch (Exception e) {
             Config.exceptionHandler.handleException(e);
-            fileWrite.log("Login error: " + e.getMessage(), SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.ERROR, () -> "Login error: " + e.getMessage(), SycoraxKernel.LOG_FILE_NAME);
             throw e;
         }
     }
@@ -142,13 +162,13 @@ class AuthenticationManager {
      */
     public void handleFailedLoginAttempt() throws Exception {
         loginAttemptsRemaining--;
-        fileWrite.log("Failed login attempt, remaining: " + loginAttemptsRemaining, SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.WARN, () -> "Failed login attempt, remaining: " + loginAttemptsRemaining, SycoraxKernel.LOG_FILE_NAME);
         if (loginAttemptsRemaining <= 0) {
             Config.io.printError("Authentication Attempts Exceeded! Further attempts are locked!");
-            fileWrite.log("Authentication attempts exceeded, locking system", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Authentication attempts exceeded, locking system", SycoraxKernel.LOG_FILE_NAME);
             Thread.sleep(36000);
             loginAttemptsRemaining = 5;
-            fileWrite.log("Reset login attempts to 5 after lock", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.DEBUG, () -> "Reset login attempts to 5 after lock", SycoraxKernel.LOG_FILE_NAME);
         }
     }
 
@@ -162,13 +182,22 @@ class AuthenticationManager {
     public boolean challengePIN(String storedPIN) throws Exception {
         String enteredPIN = String.valueOf(Config.console.readPassword("> PIN : "));
         boolean success = Config.cryptography.stringToSHA3_256(enteredPIN).equals(storedPIN);
-        fileWrite.log("PIN challenge " + (success ? "successful" : "failed") + " for user: " + username, SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(success ? LogLevel.INFO : LogLevel.WARN, () -> "PIN challenge " + (success ? "successful" : "failed") + " for user: " + username, SycoraxKernel.LOG_FILE_NAME);
         return success;
     }
 
     public String getUsername() {
         return username;
     }
+
+    /**
+     * Retrieves the account record of the user who logged in last.
+     *
+     * @return The account record, or null before a successful login.
+     */
+    public UserAccount getUserAccount() {
+        return userAccount;
+    }
 }
 
 /**
@@ -177,7 +206,7 @@ class AuthenticationManager {
 class SessionManager {
     private String accountName = "DEFAULT_USER";
     private String username = "DEFAULT_USERNAME";
-    private String userUnlockPIN = "";
+    private UserAccount userAccount = new UserAccount();
     private String systemName = "DEFAULT_SYSNAME";
     private boolean isUserAdmin = false;
     private char prompt = '?';
@@ -188,19 +217,22 @@ class SessionManager {
     }
 
     /**
-     * Fetches user details after successful login.
+     * Sets up the session from the account record read at login.
      *
-     * @param username The authenticated username.
+     * @param account The account record of the authenticated user.
      * @throws Exception If an error occurs during detail fetching.
      */
-    public void fetchUserDetails(String username) throws Exception {
-        this.username = username;
-        this.accountName = new Login(username).getNameLogic();
-        this.isUserAdmin = new Login(username).checkPrivilegeLogic();
-        this.userUnlockPIN = new Login(username).getPINLogic();
+    public void fetchUserDetails(UserAccount account) throws Exception {
+        this.userAccount = account;
+        this.username = account.getUsername();
+        this.accountName = account.getName();
+        // Resolves the permissions of the session once, checks after this are bit tests
+        Config.authorization.openSession(username, account.isAdmin());
+        this.isUserAdmin = Config.authorization.isAdmin(username);
         this.systemName = Config.policyCheck.retrievePolicyValue("sysname");
         this.prompt = isUserAdmin ? '!' : '*';
-        fileWrite.log("Fetched user details for: " + username, SycoraxKernel.LOG_FILE_NAME);
+        FileWrite.setSessionUser(username);
+        fileWrite.log(LogLevel.DEBUG, () -> "Fetched user details for: " + username, SycoraxKernel.LOG_FILE_NAME);
     }
 
     /**
@@ -209,25 +241,38 @@ class SessionManager {
      * @throws Exception If an error occurs during state clearing.
      */
     public void clearSessionState() throws Exception {
+        Config.authorization.closeSession(username);
         username = "DEFAULT_USERNAME";
         accountName = "DEFAULT_USER";
-        userUnlockPIN = "";
+        userAccount = new UserAccount();
         isUserAdmin = false;
         prompt = '?';
         System.gc();
-        fileWrite.log("Session state cleared", SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "Session state cleared", SycoraxKernel.LOG_FILE_NAME);
+        FileWrite.setSessionUser(null);
     }
 
     public String getPrompt() {
         return accountName + "@" + systemName + prompt + "> ";
     }
 
-    public boolean isUserAdmin() {
-        return isUserAdmin;
+    public boolean isUserAdmin() throws Exception {
+        return Config.authorization.isAdmin(username);
+    }
+
+    /**
+     * Checks whether the logged in user holds the permission.
+     *
+     * @param permission The permission to check.
+     * @return true if the user holds the permission, false otherwise.
+     * @throws Exception If the user's privileges cannot be read.
+     */
+    public boolean hasPermission(Permission permission) throws Exception {
+        return Config.authorization.hasPermission(username, permission);
     }
 
     public String getUserUnlockPIN() {
-        return userUnlockPIN;
+        return userAccount.getPin();
     }
 
     public String getUsername() {
@@ -261,6 +306,7 @@ class CommandProcessor {
         commands.put("script", new ScriptCommand(this, fileWrite));
         commands.put("update", new UpdateCommand(sessionManager.getUsername(), fileWrite));
         commands.put("usermgmt", new UserManagementCommand(sessionManager.getUsername(), fileWrite));
+        commands.put("log", new LogCommand(sessionManager, fileWrite));
     }
 
     /**
@@ -270,14 +316,14 @@ class CommandProcessor {
      */
     public void runUserShell() throws Exception {
         Config.build.viewBuildInfo(false);
-        fileWrite.log("Starting user shell for: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Starting user shell for: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
         String input;
         do {
             input = Config.console.readLine(sessionManager.getPrompt());
             processCommand(input);
         } while (!input.equalsIgnoreCase("logout"));
         sessionManager.clearSessionState();
-        fileWrite.log("User shell terminated", SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "User shell terminated", SycoraxKernel.LOG_FILE_NAME);
     }
 
     /**
@@ -288,15 +334,15 @@ class CommandProcessor {
      */
     public void processCommand(String input) throws Exception {
         if (input == null || input.trim().isEmpty()) return;
-        fileWrite.log("Processing command: " + input, SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "Processing command: " + input, SycoraxKernel.LOG_FILE_NAME);
         String[] commandArray = Config.io.splitStringToArray(input);
         Command command = commands.get(commandArray[0].toLowerCase());
         if (command != null) {
             command.execute(commandArray);
-            fileWrite.log("Executed command: " + commandArray[0], SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.TRACE, () -> "Executed command: " + commandArray[0], SycoraxKernel.LOG_FILE_NAME);
         } else {
             Config.anvil.anvilInterpreter(commandArray);
-            fileWrite.log("Delegated to Anvil: " + input, SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.TRACE, () -> "Delegated to Anvil: " + input, SycoraxKernel.LOG_FILE_NAME);
         }
     }
 
@@ -310,36 +356,36 @@ class CommandProcessor {
     public boolean executeScript(String scriptFileName) throws Exception {
         if (scriptFileName == null || scriptFileName.trim().isEmpty() || scriptFileName.startsWith(" ")) {
             Config.io.printError("The name of the script file cannot be blank.");
-            fileWrite.log("Script execution failed: Invalid script file name", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Script execution failed: Invalid script file name", SycoraxKernel.LOG_FILE_NAME);
             return false;
         }
-        if (!Config.policyCheck.retrievePolicyValue("script").equals("on") && !sessionManager.isUserAdmin()) {
+        if (!sessionManager.hasPermission(Permission.SCRIPT)) {
             Config.io.printError("Insufficient Privileges to run scripts! Please contact the Administrator.");
-            fileWrite.log("Script execution failed: Insufficient privileges", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Script execution failed: Insufficient privileges", SycoraxKernel.LOG_FILE_NAME);
             return false;
         }
         String filePath = Config.io.convertFileSeparator(".|Users|Cataphract|" + sessionManager.getUsername() + "|" + scriptFileName);
         File scriptFile = new File(filePath);
         if (!scriptFile.exists() || scriptFile.isDirectory()) {
             Config.io.printAttention("The specified script file is invalid or has not been found.\nPlease check the script file name and try again.");
-            fileWrite.log("Script execution failed: File not found - " + filePath, SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Script execution failed: File not found - " + filePath, SycoraxKernel.LOG_FILE_NAME);
             return false;
         }
         if (scriptMode) {
             Config.io.printError("Cannot execute script within another script.");
-            fileWrite.log("Script execution failed: Nested script execution", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Script execution failed: Nested script execution", SycoraxKernel.LOG_FILE_NAME);
             return false;
         }
         scriptMode = true;
         try (BufferedReader br = new BufferedReader(new FileReader(scriptFile))) {
             String scriptLine;
-            fileWrite.log("Executing script: " + scriptFileName, SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.INFO, () -> "Executing script: " + scriptFileName, SycoraxKernel.LOG_FILE_NAME);
             while ((scriptLine = br.readLine()) != null) {
                 if (scriptLine.startsWith("#") || scriptLine.trim().isEmpty()) continue;
                 if (scriptLine.equalsIgnoreCase("End Script")) break;
                 processCommand(scriptLine);
             }
-            fileWrite.log("Script execution completed: " + scriptFileName, SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.INFO, () -> "Script execution completed: " + scriptFileName, SycoraxKernel.LOG_FILE_NAME);
             return true;
         } finally {
             scriptMode = false;
@@ -369,9 +415,15 @@ class RefreshCommand implements Command {
 
     @Override
     public void execute(String[] args) throws Exception {
-        sessionManager.fetchUserDetails(sessionManager.getUsername());
+        UserRecordCache.invalidate(sessionManager.getUsername());
+        UserAccount account = new Login(sessionManager.getUsername()).loadUserAccount();
+        if (account == null) {
+            Config.io.printError("Unable to read the user details.");
+            return;
+        }
+        sessionManager.fetchUserDetails(account);
         Config.io.printInfo("User details refreshed.");
-        fileWrite.log("Refreshed user details for: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "Refreshed user details for: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
     }
 }
 
@@ -392,7 +444,7 @@ class LockCommand implements Command {
         AuthenticationManager authManager = new AuthenticationManager(fileWrite);
         String input;
         Config.build.clearScreen();
-        fileWrite.log("Locking console for user: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Locking console for user: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
         do {
             StringBuilder lockPromptBuilder = new StringBuilder()
                     .append((char)27).append("[33;49m")
@@ -405,11 +457,11 @@ class LockCommand implements Command {
         Config.io.printAttention("Please Enter Unlock PIN To Continue.");
         while (!authManager.challengePIN(sessionManager.getUserUnlockPIN())) {
             Config.io.printError("Incorrect PIN.");
-            fileWrite.log("Incorrect PIN entered", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Incorrect PIN entered", SycoraxKernel.LOG_FILE_NAME);
             authManager.handleFailedLoginAttempt();
         }
         Config.build.viewBuildInfo(false);
-        fileWrite.log("Console unlocked for user: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Console unlocked for user: " + sessionManager.getUsername(), SycoraxKernel.LOG_FILE_NAME);
     }
 }
 
@@ -426,7 +478,7 @@ class PolicyManagementCommand implements Command {
     @Override
     public void execute(String[] args) throws Exception {
         new PolicyManager().policyEditorLogic();
-        fileWrite.log("Policy management executed", SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Policy management executed", SycoraxKernel.LOG_FILE_NAME);
     }
 }
 
@@ -446,7 +498,7 @@ class FileManagementCommand implements Command {
     public void execute(String[] args) throws Exception {
         Login login = new Login(username);
         new FileManagement(login, new FileRead(login)).execute(args);
-        fileWrite.log("File management executed for user: " + username, SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.DEBUG, () -> "File management executed for user: " + username, SycoraxKernel.LOG_FILE_NAME);
     }
 }
 
@@ -462,7 +514,8 @@ class ExitCommand implements Command {
 
     @Override
     public void execute(String[] args) throws Exception {
-        fileWrite.log("Exiting system", SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Exiting system", SycoraxKernel.LOG_FILE_NAME);
+        DatabaseManager.shutdown();
         System.exit(0);
     }
 }
@@ -479,7 +532,8 @@ class RestartCommand implements Command {
 
     @Override
     public void execute(String[] args) throws Exception {
-        fileWrite.log("Restarting system", SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Restarting system", SycoraxKernel.LOG_FILE_NAME);
+        DatabaseManager.shutdown();
         System.exit(211);
     }
 }
@@ -500,12 +554,12 @@ class ScriptCommand implements Command {
     public void execute(String[] args) throws Exception {
         if (args.length < 2) {
             Config.io.printError("Invalid Syntax: script <filename>");
-            fileWrite.log("Script command error: Invalid syntax", SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.WARN, () -> "Script command error: Invalid syntax", SycoraxKernel.LOG_FILE_NAME);
             return;
         }
         boolean success = commandProcessor.executeScript(args[1]);
         if (success) {
-            fileWrite.log("Script command executed: " + args[1], SycoraxKernel.LOG_FILE_NAME);
+            fileWrite.log(LogLevel.DEBUG, () -> "Script command executed: " + args[1], SycoraxKernel.LOG_FILE_NAME);
         }
     }
 }
@@ -531,7 +585,7 @@ class UpdateCommand implements Command {
             fileWrite
         ).performUpdate();
         new File(Config.io.convertFileSeparator(".|Cataphract.zip")).delete();
-        fileWrite.log("Update command executed for user: " + username, SycoraxKernel.LOG_FILE_NAME);
+        fileWrite.log(LogLevel.INFO, () -> "Update command executed for user: " + username, SycoraxKernel.LOG_FILE_NAME);
     }
 }
 
@@ -539,6 +593,8 @@ class UpdateCommand implements Command {
  * Command to manage user accounts.
  */
 class UserManagementCommand implements Command {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final String username;
     private final FileWrite fileWrite;
 
@@ -550,29 +606,170 @@ class UserManagementCommand implements Command {
     @Override
     public void execute(String[] args) throws Exception {
         if (args.length < 2) {
-            Config.io.printError("Module Usermgmt: Missing subcommand. Use: create, modify, or delete");
-            fileWrite.log("User management error: Missing subcommand", SycoraxKernel.LOG_FILE_NAME);
+            Config.io.printError("Module Usermgmt: Missing subcommand. Use: create, modify, delete, list, import or export");
+            fileWrite.log(LogLevel.WARN, () -> "User management error: Missing subcommand", SycoraxKernel.LOG_FILE_NAME);
             return;
         }
         switch (args[1].toLowerCase()) {
             case "create":
                 new AccountCreate(username).execute();
-                fileWrite.log("User management: Created account", SycoraxKernel.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "User management: Created account", SycoraxKernel.LOG_FILE_NAME);
                 break;
             case "modify":
                 new AccountModify(username).execute();
-                fileWrite.log("User management: Modified account", SycoraxKernel.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "User management: Modified account", SycoraxKernel.LOG_FILE_NAME);
                 break;
             case "delete":
                 new AccountDelete(username).execute();
                 Config.io.printInfo("Account deleted. Logging out...");
-                fileWrite.log("User management: Deleted account, logging out", SycoraxKernel.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.INFO, () -> "User management: Deleted account, logging out", SycoraxKernel.LOG_FILE_NAME);
                 Config.console.readLine("Press Enter to logout...");
                 break;
+            case "list":
+                listUserAccounts(args);
+                break;
+            case "import":
+            case "export":
+                if (args.length < 3) {
+                    Config.io.printError("Invalid Syntax. Use: usermgmt " + args[1].toLowerCase() + " <file>");
+                    return;
+                }
+                new AccountTransfer(username, args[1].equalsIgnoreCase("import"), args[2]).execute();
+                fileWrite.log(LogLevel.INFO, () -> "User management: Account " + args[1].toLowerCase() + ", file: " + args[2], SycoraxKernel.LOG_FILE_NAME);
+                break;
             default:
                 Config.io.printError("Module Usermgmt: " + args[1] + " - Command Not Found");
-                fileWrite.log("User management error: Unknown subcommand - " + args[1], SycoraxKernel.LOG_FILE_NAME);
+                fileWrite.log(LogLevel.WARN, () -> "User management error: Unknown subcommand - " + args[1], SycoraxKernel.LOG_FILE_NAME);
                 break;
         }
     }
+
+    /**
+     * Lists the user accounts: "list" shows all of them, "list --page [size]" a page at a time.
+     */
+    private void listUserAccounts(String[] args) throws Exception {
+        int pageSize = 0;
+        if (args.length > 2) {
+            if (!args[2].equalsIgnoreCase("--page")) {
+                Config.io.printError("Invalid Syntax. Use: usermgmt list [--page [size]]");
+                return;
+            }
+            pageSize = DEFAULT_PAGE_SIZE;
+            if (args.length > 3) {
+                try {
+                    pageSize = Integer.parseInt(args[3]);
+                } catch (NumberFormatException e) {
+                    pageSize = 0;
+                }
+                if (pageSize <= 0) {
+                    Config.io.printError("The page size must be a positive number.");
+                    return;
+                }
+            }
+        }
+        new Login(username).listUserAccounts(pageSize);
+        fileWrite.log(LogLevel.INFO, () -> "User management: Listed accounts", SycoraxKernel.LOG_FILE_NAME);
+    }
+}
+
+/**
+ * Command to search the binary logs by time range, user, source and level.
+ */
+class LogCommand implements Command {
+    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd[ HH:mm[:ss]]");
+    private static final String OUTPUT_FORMAT = "dd-MMMM-yyyy HH:mm:ss";
+    private final SessionManager sessionManager;
+    private final FileWrite fileWrite;
+
+    public LogCommand(SessionManager sessionManager, FileWrite fileWrite) {
+        this.sessionManager = sessionManager;
+        this.fileWrite = fileWrite;
+    }
+
+    @Override
+    public void execute(String[] args) throws Exception {
+        if (!sessionManager.isUserAdmin()) {
+            Config.io.printError("Insufficient privileges to view the logs.");
+            fileWrite.log(LogLevel.WARN, () -> "Log query denied: Insufficient privileges", SycoraxKernel.LOG_FILE_NAME);
+            return;
+        }
+        long fromMillis = Long.MIN_VALUE;
+        long toMillis = Long.MAX_VALUE;
+        String source = null;
+        String user = null;
+        LogLevel level = null;
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                switch (args[i].toLowerCase()) {
+                    case "--from":
+                        fromMillis = parseTime(args[i + 1], false);
+                        break;
+                    case "--to":
+                        toMillis = parseTime(args[i + 1], true);
+                        break;
+                    case "--source":
+                        source = args[i + 1];
+                        break;
+                    case "--user":
+                        user = Config.cryptography.stringToSHA3_256(args[i + 1]);
+                        break;
+                    case "--level":
+                        level = LogLevel.parse(args[i + 1], null);
+                        if (level == null) {
+                            throw new IllegalArgumentException("Unknown log level: " + args[i + 1]);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            Config.io.printError(e.getMessage());
+            Config.io.printError("Invalid Syntax: log [--from <yyyy-MM-dd[ HH:mm[:ss]]>] [--to <yyyy-MM-dd[ HH:mm[:ss]]>] [--user <username>] [--source <log>] [--level <level>]");
+            return;
+        }
+        if (LogQuery.listSources().isEmpty()) {
+            Config.io.printAttention("No binary logs found. Set the \"log_format\" policy to \"binary\" to record searchable logs.");
+            return;
+        }
+
+        Map<String, String> accountNames = new HashMap<>();
+        int matches = new LogQuery(fromMillis, toMillis, source, user, level).run(entry -> Config.io.println(
+                Config.time.formatEpochMillis(entry.getEpochMillis(), OUTPUT_FORMAT) +
+                String.format(" %-5s %s [%s]: ", entry.getLevel(), entry.getSource(), accountName(accountNames, entry.getUser())) +
+                entry.getMessage()));
+        Config.io.printInfo(matches + " matching log record(s).");
+        final String query = String.join(" ", args);
+        fileWrite.log(LogLevel.INFO, () -> "Log query executed: " + query, SycoraxKernel.LOG_FILE_NAME);
+    }
+
+    private long parseTime(String value, boolean endOfRange) {
+        TemporalAccessor parsed = INPUT_FORMAT.parse(value);
+        LocalDateTime dateTime = value.length() > 10
+                ? LocalDateTime.of(LocalDate.from(parsed), LocalTime.from(parsed))
+                : LocalDate.from(parsed).atStartOfDay();
+        if (endOfRange) {
+            // An end given as a day, minute or second covers that whole day, minute or second
+            dateTime = value.length() > 16 ? dateTime.plusSeconds(1) : value.length() > 10 ? dateTime.plusMinutes(1) : dateTime.plusDays(1);
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - 1;
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private String accountName(Map<String, String> accountNames, String username) {
+        if (username == null || username.isEmpty()) {
+            return "-";
+        }
+        return accountNames.computeIfAbsent(username, hash -> {
+            try {
+                String name = new Login(hash).getNameLogic();
+                return name == null ? hash.substring(0, 8) : name;
+            } catch (Exception e) {
+                return hash.substring(0, Math.min(8, hash.length()));
+            }
+        });
+    }
 }
\ No newline at end of file